@@ -0,0 +1,48 @@
+package com.khai.coffeeshop.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/*
+Both pools stay on platform threads when spring.threads.virtual.enabled is set.
+Their work is CPU-bound and virtual threads are not time-sliced, so a few resizes or bcrypt checks
+could occupy every carrier thread and stall request handling. The pool sizes are the limits that matter here.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    // Image processing is CPU and memory heavy, keep it to a few threads and a bounded queue
+    @Bean
+    public ThreadPoolTaskExecutor imageTaskExecutor(
+            @Value("${app.images.processing.threads:2}") int threads,
+            @Value("${app.images.processing.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // bcrypt is slow on purpose, logins get their own pool so a burst of them can't take every request thread.
+    // A full queue rejects the login (429) instead of letting callers pile up behind it
+    @Bean
+    public ThreadPoolTaskExecutor passwordTaskExecutor(
+            @Value("${app.security.password.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int threads,
+            @Value("${app.security.password.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+}
@@ -1,13 +1,18 @@
 package com.khai.coffeeshop.controller;
 
 import com.khai.coffeeshop.dao.UserDao;
+import com.khai.coffeeshop.dto.TokenResponseDto;
 import com.khai.coffeeshop.dto.UserTypes;
+import com.khai.coffeeshop.security.TokenService;
 import com.khai.coffeeshop.service.AuthService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
@@ -22,14 +27,31 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<String> login(
+    public CompletableFuture<ResponseEntity<TokenResponseDto>> login(
             @RequestBody UserTypes.LoginDto loginDto
     ) {
-        String responseString = authService.login(
+        return authService.login(
                 loginDto.username(),
                 loginDto.password()
-        );
-        return ResponseEntity.ok(responseString);
+        ).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<TokenResponseDto> refresh(
+            @RequestBody UserTypes.RefreshDto refreshDto
+    ) {
+        return ResponseEntity.ok(authService.refresh(refreshDto.refreshToken()));
+    }
+
+    // Revokes the bearer token of the request and the refresh token in the body, when there is one
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) UserTypes.RefreshDto refreshDto
+    ) {
+        authService.logout(TokenService.bearerToken(authorization),
+                refreshDto != null ? refreshDto.refreshToken() : null);
+        return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/register-admin")
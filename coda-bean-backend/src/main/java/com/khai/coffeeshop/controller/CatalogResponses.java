@@ -0,0 +1,27 @@
+package com.khai.coffeeshop.controller;
+
+import com.khai.coffeeshop.enumTypes.CatalogFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+// Catalog exports are streamed as file downloads, the body is written after the handler returns
+final class CatalogResponses {
+    private CatalogResponses() {
+    }
+
+    static ResponseEntity<StreamingResponseBody> export(CatalogFormat format, String baseName, StreamingResponseBody body) {
+        if (format == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(format.fileName(baseName))
+                        .build()
+                        .toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,20 @@
+package com.khai.coffeeshop.controller;
+
+import com.khai.coffeeshop.service.EntityCacheStatistics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/entities")
+@RequiredArgsConstructor
+public class EntityCacheController {
+    private final EntityCacheStatistics entityCacheStatistics;
+
+    @GetMapping("/cache-stats")
+    public ResponseEntity<EntityCacheStatistics.Stats> getCacheStats() {
+        return ResponseEntity.ok(entityCacheStatistics.stats());
+    }
+}
@@ -1,36 +1,34 @@
 package com.khai.coffeeshop.controller;
 
+import com.khai.coffeeshop.service.ImageCache;
+import com.khai.coffeeshop.enumTypes.ImageVariant;
+import com.khai.coffeeshop.service.ImageService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-
 @RestController
 @RequestMapping("/api/images")
 @RequiredArgsConstructor
 public class ImageController {
-    private final Path imagePath = Paths.get("uploads/product_images");
+    private final ImageService imageService;
 
     //"/api/images/product-image/"
 
     @GetMapping("/product-image/{imageName}")
-    public ResponseEntity<byte[]> getImage(@PathVariable String imageName) throws IOException {
-        byte[] imageBytes = Files.readAllBytes(Path.of(imagePath + "/" + imageName));
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.IMAGE_JPEG); // Or MediaType.IMAGE_PNG if it's a PNG
+    public ResponseEntity<Resource> getImage(
+            @PathVariable String imageName,
+            @RequestParam(required = false) String size) {
+        return ImageResponses.of(imageService.loadProductImage(imageName, ImageVariant.fromParameter(size)));
+    }
 
-        return new ResponseEntity<>(imageBytes, headers, HttpStatus.OK);
+    @GetMapping("/cache-stats")
+    public ResponseEntity<ImageCache.Stats> getCacheStats() {
+        return ResponseEntity.ok(imageService.cacheStats());
     }
 }
-
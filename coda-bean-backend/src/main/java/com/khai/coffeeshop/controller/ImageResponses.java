@@ -0,0 +1,41 @@
+package com.khai.coffeeshop.controller;
+
+import com.khai.coffeeshop.service.StoredImage;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/*
+Image files get a fresh random name on every upload, so their content never changes
+and browsers can cache them for good. Returning the Resource lets Spring stream it,
+answer If-None-Match / If-Modified-Since with 304 and serve Range requests with 206.
+The exception is a variant that isn't generated yet: the original goes out under the variant's URL
+and has to be revalidated, so the resized file replaces it once it exists.
+ */
+final class ImageResponses {
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS)
+            .cachePublic()
+            .immutable();
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+
+    private ImageResponses() {}
+
+    static ResponseEntity<Resource> of(Optional<StoredImage> image) {
+        return image.map(ImageResponses::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static ResponseEntity<Resource> ok(StoredImage image) {
+        return ResponseEntity.ok()
+                .contentType(image.contentType())
+                .eTag(image.etag())
+                .lastModified(image.lastModified())
+                .cacheControl(image.fallback() ? REVALIDATE : IMMUTABLE)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .body(image.body());
+    }
+}
@@ -1,23 +1,59 @@
 package com.khai.coffeeshop.controller;
 
+import com.khai.coffeeshop.dto.ImportReportDto;
 import com.khai.coffeeshop.dto.MenuCategoryDto;
 import com.khai.coffeeshop.dto.MenuItemDto;
+import com.khai.coffeeshop.dto.MenuSnapshot;
+import com.khai.coffeeshop.enumTypes.CatalogFormat;
+import com.khai.coffeeshop.service.CatalogTransferService;
 import com.khai.coffeeshop.service.MenuService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/menu")
 @RequiredArgsConstructor
 public class MenuController {
+    private static final String MENU_VERSION_HEADER = "X-Menu-Version";
+
     private final MenuService menuService;
+    private final CatalogTransferService catalogTransferService;
 
+    // Serves the pre-rendered menu, conditional requests with a matching ETag get a 304
     @GetMapping
-    public ResponseEntity<List<MenuCategoryDto>> getFullMenu() {
-        return ResponseEntity.ok(menuService.getAllCategoriesWithItems());
+    public ResponseEntity<byte[]> getFullMenu(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        MenuSnapshot snapshot = menuService.getMenuSnapshot();
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .header(MENU_VERSION_HEADER, String.valueOf(snapshot.version()));
+        if (gzip) {
+            return response
+                    .eTag(snapshot.etag() + "-gzip")
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(snapshot.gzipBody());
+        }
+        return response
+                .eTag(snapshot.etag())
+                .body(snapshot.jsonBody());
+    }
+
+    @GetMapping("/version")
+    public ResponseEntity<Long> getMenuVersion() {
+        return ResponseEntity.ok(menuService.getMenuSnapshot().version());
     }
 
     @PostMapping("/categories")
@@ -33,6 +69,21 @@ public class MenuController {
         return ResponseEntity.ok(menuService.addItemToCategory(categoryId, itemDto));
     }
 
+    // Streams a CSV (with header) or NDJSON body, items name their category, which must already exist
+    @PostMapping(value = "/items/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportReportDto> importMenuItems(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        return ResponseEntity.ok(catalogTransferService.importMenuItems(body, CatalogFormat.fromMediaType(contentType)));
+    }
+
+    @GetMapping("/items/export")
+    public ResponseEntity<StreamingResponseBody> exportMenuItems(@RequestParam(required = false) String format) {
+        CatalogFormat catalogFormat = CatalogFormat.fromParameter(format);
+        return CatalogResponses.export(catalogFormat, "menu-items",
+                output -> catalogTransferService.exportMenuItems(output, catalogFormat));
+    }
+
     @PutMapping("/items/{itemId}")
     public ResponseEntity<MenuItemDto> updateMenuItem(
             @PathVariable Long itemId,
@@ -51,4 +102,17 @@ public class MenuController {
             @RequestParam String query) {
         return ResponseEntity.ok(menuService.searchItems(query));
     }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
 }
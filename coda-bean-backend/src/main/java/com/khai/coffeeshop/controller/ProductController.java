@@ -1,14 +1,23 @@
 package com.khai.coffeeshop.controller;
 
+import com.khai.coffeeshop.dto.ImportReportDto;
 import com.khai.coffeeshop.dto.ProductDto;
+import com.khai.coffeeshop.dto.ProductPageDto;
+import com.khai.coffeeshop.enumTypes.CatalogFormat;
+import com.khai.coffeeshop.enumTypes.ProductSort;
+import com.khai.coffeeshop.service.CatalogTransferService;
 import com.khai.coffeeshop.service.ImageService;
 import com.khai.coffeeshop.service.ProductService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -17,12 +26,37 @@ import java.util.List;
 public class ProductController {
     private final ProductService productService;
     private final ImageService imageService;
+    private final CatalogTransferService catalogTransferService;
 
     @GetMapping
     public List<ProductDto> getAllProducts() {
         return productService.getAllProducts();
     }
 
+    // Keyset-paginated listing, pass the returned nextCursor back with the same filters for the next page
+    @GetMapping("/page")
+    public ResponseEntity<ProductPageDto> getProductPage(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "24") int size,
+            @RequestParam(required = false) String cursor) {
+        ProductSort productSort = ProductSort.fromParameter(sort);
+        Sort.Direction sortDirection = Sort.Direction.fromOptionalString(direction).orElse(null);
+        if (productSort == null || sortDirection == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(productService.getProductPage(
+                category, minPrice, maxPrice, productSort, sortDirection, size, cursor));
+    }
+
+    @GetMapping("/categories")
+    public List<String> getCategories() {
+        return productService.getCategories();
+    }
+
     @GetMapping("/product/{id}")
     public ResponseEntity<ProductDto> getProductDetail(@PathVariable int id) {
         ProductDto productDto = productService.getProductDetail(id);
@@ -35,6 +69,21 @@ public class ProductController {
         return ResponseEntity.ok(response);
     }
 
+    // Streams a CSV (with header) or NDJSON body, valid rows are saved in chunks and bad ones reported
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportReportDto> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        return ResponseEntity.ok(catalogTransferService.importProducts(body, CatalogFormat.fromMediaType(contentType)));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(required = false) String format) {
+        CatalogFormat catalogFormat = CatalogFormat.fromParameter(format);
+        return CatalogResponses.export(catalogFormat, "products",
+                output -> catalogTransferService.exportProducts(output, catalogFormat));
+    }
+
     @PostMapping("/new")
     public ResponseEntity<String> createNewProductWithoutImage(@RequestBody ProductDto productDto) {
         String response = productService.createNewProduct(productDto);
@@ -46,12 +95,13 @@ public class ProductController {
             @RequestPart("productDto") ProductDto productDto,
             @RequestPart(value = "imageFile", required = false) MultipartFile imageFile) throws IOException {
 
-        if (imageFile != null && !imageFile.isEmpty()) {
-            String imageName = imageService.saveProductImage(productDto.getId(), productDto.getProductName(), imageFile);
+        boolean imageUploaded = imageFile != null && !imageFile.isEmpty();
+        if (imageUploaded) {
+            String imageName = imageService.saveProductImage(imageFile);
             productDto.setImageUrl(imageName);
         }
 
-        String response = productService.createNewProduct(productDto);
+        String response = productService.createNewProduct(productDto, imageUploaded);
         return ResponseEntity.ok(response);
     }
 
@@ -60,15 +110,27 @@ public class ProductController {
             @RequestPart("productDto") ProductDto productDto,
             @RequestPart(value = "imageFile", required = false) MultipartFile imageFile) throws IOException {
 
-        if (imageFile != null && !imageFile.isEmpty()) {
-            String imageName = imageService.saveProductImage(productDto.getId(), productDto.getProductName(), imageFile);
+        boolean imageUploaded = imageFile != null && !imageFile.isEmpty();
+        if (imageUploaded) {
+            String imageName = imageService.saveProductImage(imageFile);
             productDto.setImageUrl(imageName);
         }
 
-        String response = productService.updateProduct(productDto.getId(), productDto);
+        String response = productService.updateProduct(productDto.getId(), productDto, imageUploaded);
         return ResponseEntity.ok(response);
     }
 
+    // Raw image body (Content-Type image/*), streamed straight into the image store without multipart buffering
+    @PutMapping(value = "/product/{id}/image", consumes = "image/*")
+    public ResponseEntity<String> uploadProductImage(
+            @PathVariable int id,
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+            InputStream imageStream) throws IOException {
+        String imageName = imageService.storeImage(imageStream, contentLength == null ? -1 : contentLength);
+        productService.updateProductImage(id, imageName);
+        return ResponseEntity.ok(imageName);
+    }
+
     @DeleteMapping("/delete-product/{id}")
     public ResponseEntity<String> deleteProduct(@PathVariable int id) {
         String response = productService.deleteProduct(id);
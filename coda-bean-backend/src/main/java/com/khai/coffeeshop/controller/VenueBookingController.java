@@ -1,16 +1,24 @@
 package com.khai.coffeeshop.controller;
 
 import com.khai.coffeeshop.dto.AvailabilityCheckDto;
+import com.khai.coffeeshop.dto.AvailabilitySearchDto;
+import com.khai.coffeeshop.dto.BookingPageDto;
 import com.khai.coffeeshop.dto.BookingRequestDto;
 import com.khai.coffeeshop.dto.BookingResponseDto;
+import com.khai.coffeeshop.dto.TimeSlotDto;
+import com.khai.coffeeshop.dto.VenueAvailabilityDto;
 import com.khai.coffeeshop.dto.VenueDto;
-import com.khai.coffeeshop.security.SecurityUser;
+import com.khai.coffeeshop.enumTypes.BookingPeriod;
+import com.khai.coffeeshop.enumTypes.BookingStatus;
+import com.khai.coffeeshop.security.TokenPrincipal;
 import com.khai.coffeeshop.service.VenueBookingService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -31,27 +39,59 @@ public class VenueBookingController {
         return ResponseEntity.ok(venueBookingService.checkAvailability(availabilityCheck));
     }
 
+    @PostMapping("/search-availability")
+    public ResponseEntity<List<VenueAvailabilityDto>> searchAvailability(
+            @RequestBody AvailabilitySearchDto availabilitySearch
+    ) {
+        return ResponseEntity.ok(venueBookingService.searchAvailability(availabilitySearch));
+    }
+
+    @GetMapping("/{venueId}/free-slots")
+    public ResponseEntity<List<TimeSlotDto>> getFreeSlots(
+            @PathVariable Long venueId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date
+    ) {
+        return ResponseEntity.ok(venueBookingService.getFreeSlots(venueId, date));
+    }
+
     @PostMapping("/book")
     public ResponseEntity<BookingResponseDto> createBooking(
             @RequestBody BookingRequestDto bookingRequest,
-            @AuthenticationPrincipal SecurityUser userDetails
+            @AuthenticationPrincipal TokenPrincipal principal
     ) {
-        return ResponseEntity.ok(venueBookingService.createBooking(bookingRequest, userDetails.getId()));
+        return ResponseEntity.ok(venueBookingService.createBooking(bookingRequest, principal.id()));
     }
 
     @GetMapping("/my-bookings")
     public ResponseEntity<List<BookingResponseDto>> getUserBookings(
-            @AuthenticationPrincipal SecurityUser userDetails
+            @AuthenticationPrincipal TokenPrincipal principal
+    ) {
+        return ResponseEntity.ok(venueBookingService.getUserBookings(principal.id()));
+    }
+
+    // Keyset-paginated history, pass the returned nextCursor back with the same period for the next page
+    @GetMapping("/my-bookings/page")
+    public ResponseEntity<BookingPageDto> getUserBookingPage(
+            @RequestParam(required = false) String period,
+            @RequestParam(required = false) BookingStatus status,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @AuthenticationPrincipal TokenPrincipal principal
     ) {
-        return ResponseEntity.ok(venueBookingService.getUserBookings(userDetails.getId()));
+        BookingPeriod bookingPeriod = BookingPeriod.fromParameter(period);
+        if (bookingPeriod == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(venueBookingService.getUserBookingPage(
+                principal.id(), bookingPeriod, status, size, cursor));
     }
 
     @PostMapping("/cancel/{bookingId}")
     public ResponseEntity<Void> cancelBooking(
             @PathVariable Long bookingId,
-            @AuthenticationPrincipal SecurityUser userDetails
+            @AuthenticationPrincipal TokenPrincipal principal
     ) {
-        venueBookingService.cancelBooking(bookingId, userDetails.getId());
+        venueBookingService.cancelBooking(bookingId, principal.id());
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
@@ -1,23 +1,95 @@
 package com.khai.coffeeshop.dao;
 
+import com.khai.coffeeshop.dto.BookingInterval;
+import com.khai.coffeeshop.dto.BookingView;
 import com.khai.coffeeshop.entity.Booking;
+import com.khai.coffeeshop.enumTypes.BookingStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface BookingDao extends JpaRepository<Booking, Long> {
-    @Query("SELECT b FROM Booking b WHERE b.venue.id = :venueId AND " +
-            "((b.startTime BETWEEN :startTime AND :endTime) OR " +
-            "(b.endTime BETWEEN :startTime AND :endTime) OR " +
-            "(:startTime BETWEEN b.startTime AND b.endTime))")
+    // Half-open intervals [start, end): back-to-back bookings don't conflict, cancelled ones never do
+    @Query("SELECT b FROM Booking b WHERE b.venue.id = :venueId " +
+            "AND b.startTime < :endTime AND b.endTime > :startTime " +
+            "AND b.status <> com.khai.coffeeshop.enumTypes.BookingStatus.CANCELLED")
     List<Booking> findConflictingBookings(
             @Param("venueId") Long venueId,
             @Param("startTime") LocalDateTime startTime,
             @Param("endTime") LocalDateTime endTime
     );
 
-    List<Booking> findByUserId(Integer user_id);
+    @Query("SELECT COUNT(b) > 0 FROM Booking b WHERE b.venue.id = :venueId " +
+            "AND b.startTime < :endTime AND b.endTime > :startTime " +
+            "AND b.status <> com.khai.coffeeshop.enumTypes.BookingStatus.CANCELLED")
+    boolean existsConflictingBooking(
+            @Param("venueId") Long venueId,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime
+    );
+
+    @Query("SELECT new com.khai.coffeeshop.dto.BookingInterval(b.id, b.venue.id, b.startTime, b.endTime) " +
+            "FROM Booking b WHERE b.endTime > :after " +
+            "AND b.status <> com.khai.coffeeshop.enumTypes.BookingStatus.CANCELLED")
+    List<BookingInterval> findActiveIntervalsEndingAfter(@Param("after") LocalDateTime after);
+
+    @Query("SELECT new com.khai.coffeeshop.dto.BookingInterval(b.id, b.venue.id, b.startTime, b.endTime) " +
+            "FROM Booking b WHERE b.venue.id = :venueId " +
+            "AND b.startTime < :endTime AND b.endTime > :startTime " +
+            "AND b.status <> com.khai.coffeeshop.enumTypes.BookingStatus.CANCELLED")
+    List<BookingInterval> findActiveIntervals(
+            @Param("venueId") Long venueId,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime
+    );
+
+    @Query("SELECT new com.khai.coffeeshop.dto.BookingInterval(b.id, b.venue.id, b.startTime, b.endTime) " +
+            "FROM Booking b WHERE b.venue.id IN :venueIds " +
+            "AND b.startTime < :endTime AND b.endTime > :startTime " +
+            "AND b.status <> com.khai.coffeeshop.enumTypes.BookingStatus.CANCELLED")
+    List<BookingInterval> findActiveIntervalsForVenues(
+            @Param("venueIds") Collection<Long> venueIds,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime
+    );
+
+    String BOOKING_VIEW = "SELECT new com.khai.coffeeshop.dto.BookingView(b.id, v.id, v.name, v.location, v.capacity, " +
+            "v.description, v.pricePerHour, v.isAvailable, v.imageUrl, b.user.id, b.startTime, b.endTime, " +
+            "b.totalPrice, b.status, b.createdAt, b.specialRequests) FROM Booking b JOIN b.venue v ";
+
+    @Query(BOOKING_VIEW + "WHERE b.user.id = :userId ORDER BY b.startTime DESC, b.id DESC")
+    List<BookingView> findViewsByUserId(@Param("userId") Integer userId);
+
+    // Keyset pages over idx_bookings_user_time, continuing after (afterStart, afterId), from the start without them
+    @Query(BOOKING_VIEW + "WHERE b.user.id = :userId AND b.endTime > :now " +
+            "AND (:status IS NULL OR b.status = :status) " +
+            "AND (:afterStart IS NULL OR b.startTime > :afterStart OR (b.startTime = :afterStart AND b.id > :afterId)) " +
+            "ORDER BY b.startTime ASC, b.id ASC")
+    List<BookingView> findUpcomingViews(
+            @Param("userId") Integer userId,
+            @Param("now") LocalDateTime now,
+            @Param("status") BookingStatus status,
+            @Param("afterStart") LocalDateTime afterStart,
+            @Param("afterId") Long afterId,
+            Limit limit
+    );
+
+    // Same, backwards from (beforeStart, beforeId), most recent first
+    @Query(BOOKING_VIEW + "WHERE b.user.id = :userId AND b.endTime <= :now " +
+            "AND (:status IS NULL OR b.status = :status) " +
+            "AND (:beforeStart IS NULL OR b.startTime < :beforeStart OR (b.startTime = :beforeStart AND b.id < :beforeId)) " +
+            "ORDER BY b.startTime DESC, b.id DESC")
+    List<BookingView> findPastViews(
+            @Param("userId") Integer userId,
+            @Param("now") LocalDateTime now,
+            @Param("status") BookingStatus status,
+            @Param("beforeStart") LocalDateTime beforeStart,
+            @Param("beforeId") Long beforeId,
+            Limit limit
+    );
 }
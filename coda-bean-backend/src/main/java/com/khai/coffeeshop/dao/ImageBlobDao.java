@@ -0,0 +1,30 @@
+package com.khai.coffeeshop.dao;
+
+import com.khai.coffeeshop.entity.ImageBlob;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface ImageBlobDao extends JpaRepository<ImageBlob, String> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM ImageBlob b WHERE b.hash = :hash")
+    Optional<ImageBlob> findByHashForUpdate(@Param("hash") String hash);
+
+    // Starts at zero references, an existing row is left as it is
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "image_blobs"))
+    @Query(value = "INSERT IGNORE INTO image_blobs (hash, extension, size, reference_count, created_at) " +
+            "VALUES (:hash, :extension, :size, 0, :createdAt)",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("hash") String hash, @Param("extension") String extension,
+                       @Param("size") long size, @Param("createdAt") LocalDateTime createdAt);
+}
@@ -1,10 +1,12 @@
 package com.khai.coffeeshop.dao;
 
 import com.khai.coffeeshop.entity.MenuCategory;
+import com.khai.coffeeshop.entity.MenuItem;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface MenuCategoryDao extends JpaRepository<MenuCategory, Long> {
@@ -12,4 +14,23 @@ public interface MenuCategoryDao extends JpaRepository<MenuCategory, Long> {
 
     @Query("SELECT c FROM MenuCategory c LEFT JOIN FETCH c.items WHERE c.id = :id")
     Optional<MenuCategory> findByIdWithItems(@Param("id") Long id);
+
+    @Query("SELECT DISTINCT c FROM MenuCategory c LEFT JOIN FETCH c.items ORDER BY c.id")
+    List<MenuCategory> findAllWithItems();
+
+    @Query("SELECT DISTINCT i FROM MenuItem i LEFT JOIN FETCH i.tags WHERE i.category IN :categories")
+    List<MenuItem> fetchItemTags(@Param("categories") List<MenuCategory> categories);
+
+    /*
+    Whole category -> item -> tags tree in two statements whatever the menu size.
+    Items and tags are fetched separately because joining both onto the items bag would duplicate items.
+    Must run inside a transaction so the second query initializes the tags of the items loaded by the first.
+     */
+    default List<MenuCategory> findAllWithItemsAndTags() {
+        List<MenuCategory> categories = findAllWithItems();
+        if (!categories.isEmpty()) {
+            fetchItemTags(categories);
+        }
+        return categories;
+    }
 }
\ No newline at end of file
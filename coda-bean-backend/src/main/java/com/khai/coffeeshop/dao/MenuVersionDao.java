@@ -0,0 +1,25 @@
+package com.khai.coffeeshop.dao;
+
+import com.khai.coffeeshop.entity.MenuVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Optional;
+
+public interface MenuVersionDao extends JpaRepository<MenuVersion, Integer> {
+    // Creates the row on the first menu change, the row lock also serializes concurrent changes
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "menu_version"))
+    @Query(value = "INSERT INTO menu_version (id, version) VALUES (" + MenuVersion.ID + ", 1) "
+            + "ON DUPLICATE KEY UPDATE version = version + 1",
+            nativeQuery = true)
+    void increment();
+
+    // Zero before the menu has ever changed
+    @Query("SELECT v.version FROM MenuVersion v WHERE v.id = " + MenuVersion.ID)
+    Optional<Long> findCurrent();
+}
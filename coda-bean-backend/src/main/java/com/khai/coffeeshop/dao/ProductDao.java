@@ -1,10 +1,23 @@
 package com.khai.coffeeshop.dao;
 
 import com.khai.coffeeshop.entity.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
-public interface ProductDao extends JpaRepository<Product, Integer> {
-    Optional<Product> findProductById(Integer id);
+public interface ProductDao extends JpaRepository<Product, Integer>, JpaSpecificationExecutor<Product> {
+    // By primary key so the lookup is served from the second-level cache, a derived query would always hit the database
+    default Optional<Product> findProductById(Integer id) {
+        return findById(id);
+    }
+
+    // Keyset page: the next rows after the last id already seen
+    List<Product> findByIdGreaterThanOrderByIdAsc(Integer id, Limit limit);
+
+    @Query("SELECT DISTINCT p.category FROM Product p WHERE p.category IS NOT NULL ORDER BY p.category")
+    List<String> findCategories();
 }
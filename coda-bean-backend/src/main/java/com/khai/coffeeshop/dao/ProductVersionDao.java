@@ -0,0 +1,25 @@
+package com.khai.coffeeshop.dao;
+
+import com.khai.coffeeshop.entity.ProductVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Optional;
+
+public interface ProductVersionDao extends JpaRepository<ProductVersion, Integer> {
+    // Creates the row on the first product change
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "product_version"))
+    @Query(value = "INSERT INTO product_version (id, version) VALUES (" + ProductVersion.ID + ", 1) "
+            + "ON DUPLICATE KEY UPDATE version = version + 1",
+            nativeQuery = true)
+    void increment();
+
+    // Zero before any product has changed
+    @Query("SELECT v.version FROM ProductVersion v WHERE v.id = " + ProductVersion.ID)
+    Optional<Long> findCurrent();
+}
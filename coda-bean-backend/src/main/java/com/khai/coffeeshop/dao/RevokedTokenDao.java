@@ -0,0 +1,32 @@
+package com.khai.coffeeshop.dao;
+
+import com.khai.coffeeshop.entity.RevokedToken;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface RevokedTokenDao extends JpaRepository<RevokedToken, String> {
+    // Plain insert, a token that is already revoked fails on the primary key instead of being merged
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "revoked_tokens"))
+    @Transactional
+    @Query(value = "INSERT INTO revoked_tokens (token_id, expires_at, revoked_at) VALUES (:tokenId, :expiresAt, :revokedAt)",
+            nativeQuery = true)
+    void insert(@Param("tokenId") String tokenId, @Param("expiresAt") Instant expiresAt,
+                @Param("revokedAt") Instant revokedAt);
+
+    List<RevokedToken> findByRevokedAtAfterAndExpiresAtAfter(Instant revokedAfter, Instant expiresAfter);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -1,11 +1,29 @@
 package com.khai.coffeeshop.dao;
 
 import com.khai.coffeeshop.entity.Venue;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface VenueDao extends JpaRepository<Venue, Long> {
+    // Result ids are cached until the venues table changes, the rows themselves come from the entity cache
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Venue> findByIsAvailableTrue();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Venue> findByIsAvailableTrueAndCapacityGreaterThanEqualOrderByCapacity(Integer capacity);
+
+    // Row lock on the venue, serializes bookings of the same venue until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM Venue v WHERE v.id = :id")
+    Optional<Venue> findByIdForUpdate(@Param("id") Long id);
 }
 
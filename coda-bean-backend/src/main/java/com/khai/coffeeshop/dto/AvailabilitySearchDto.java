@@ -0,0 +1,11 @@
+package com.khai.coffeeshop.dto;
+
+import java.time.LocalDateTime;
+
+// durationMinutes defaults to the whole window, capacity to any venue size
+public record AvailabilitySearchDto(
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        Integer durationMinutes,
+        Integer capacity
+) {}
@@ -0,0 +1,10 @@
+package com.khai.coffeeshop.dto;
+
+import java.time.LocalDateTime;
+
+public record BookingInterval(
+        Long bookingId,
+        Long venueId,
+        LocalDateTime startTime,
+        LocalDateTime endTime
+) {}
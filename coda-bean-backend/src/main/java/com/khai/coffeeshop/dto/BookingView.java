@@ -0,0 +1,40 @@
+package com.khai.coffeeshop.dto;
+
+import com.khai.coffeeshop.enumTypes.BookingStatus;
+
+import java.time.LocalDateTime;
+
+// One row of a user's booking history, booking and venue columns read by a single query
+public record BookingView(
+        Long id,
+        Long venueId,
+        String venueName,
+        String venueLocation,
+        Integer venueCapacity,
+        String venueDescription,
+        Double venuePricePerHour,
+        Boolean venueIsAvailable,
+        String venueImageUrl,
+        Integer userId,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        Double totalPrice,
+        BookingStatus status,
+        LocalDateTime createdAt,
+        String specialRequests
+) {
+    public BookingResponseDto toResponseDto() {
+        return new BookingResponseDto(
+                id,
+                new VenueDto(venueId, venueName, venueLocation, venueCapacity, venueDescription,
+                        venuePricePerHour, venueIsAvailable, venueImageUrl),
+                userId,
+                startTime,
+                endTime,
+                totalPrice,
+                status.name(),
+                createdAt,
+                specialRequests
+        );
+    }
+}
@@ -0,0 +1,12 @@
+package com.khai.coffeeshop.dto;
+
+import java.util.List;
+
+// errors holds the first failing rows only, failed counts all of them
+public record ImportReportDto(
+        long imported,
+        long failed,
+        List<RowError> errors
+) {
+    public record RowError(long row, String message) {}
+}
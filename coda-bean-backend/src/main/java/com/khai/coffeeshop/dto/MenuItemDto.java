@@ -24,7 +24,7 @@ public record MenuItemDto(
                 item.isAvailable(),
                 item.getImageUrl(),
                 item.getPreparationTime(),
-                item.getTags()
+                item.getTags() == null ? Set.of() : Set.copyOf(item.getTags())
         );
     }
 
@@ -0,0 +1,44 @@
+package com.khai.coffeeshop.dto;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+// One menu item per row in catalog files, the category is referenced by name so files move between databases
+public record MenuItemRowDto(
+        Long id,
+        String category,
+        String name,
+        String description,
+        BigDecimal price,
+        Boolean available,
+        String imageUrl,
+        Integer preparationTime,
+        Set<String> tags
+) {
+    public static MenuItemRowDto of(MenuCategoryDto category, MenuItemDto item) {
+        return new MenuItemRowDto(
+                item.id(),
+                category.name(),
+                item.name(),
+                item.description(),
+                item.price(),
+                item.available(),
+                item.imageUrl(),
+                item.preparationTime(),
+                item.tags()
+        );
+    }
+
+    public MenuItemDto toMenuItemDto() {
+        return new MenuItemDto(
+                null,
+                name,
+                description,
+                price,
+                available == null || available,
+                imageUrl,
+                preparationTime,
+                tags == null ? Set.of() : tags
+        );
+    }
+}
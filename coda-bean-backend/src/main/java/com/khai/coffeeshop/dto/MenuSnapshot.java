@@ -0,0 +1,14 @@
+package com.khai.coffeeshop.dto;
+
+import com.khai.coffeeshop.search.MenuSearchIndex;
+
+import java.util.List;
+
+public record MenuSnapshot(
+        long version,
+        List<MenuCategoryDto> categories,
+        MenuSearchIndex searchIndex,
+        String etag,
+        byte[] jsonBody,
+        byte[] gzipBody
+) {}
@@ -0,0 +1,9 @@
+package com.khai.coffeeshop.dto;
+
+import java.util.List;
+
+// nextCursor is null on the last page
+public record ProductPageDto(
+        List<ProductDto> items,
+        String nextCursor
+) {}
@@ -0,0 +1,20 @@
+package com.khai.coffeeshop.dto;
+
+import java.math.BigDecimal;
+
+public record SuggestionDto(
+        String type,
+        Long id,
+        String name,
+        String category,
+        BigDecimal price,
+        String imageUrl,
+        double score
+) {
+    public static final String MENU_ITEM = "MENU_ITEM";
+    public static final String PRODUCT = "PRODUCT";
+
+    public SuggestionDto withScore(double score) {
+        return new SuggestionDto(type, id, name, category, price, imageUrl, score);
+    }
+}
@@ -0,0 +1,8 @@
+package com.khai.coffeeshop.dto;
+
+import java.time.LocalDateTime;
+
+public record TimeSlotDto(
+        LocalDateTime startTime,
+        LocalDateTime endTime
+) {}
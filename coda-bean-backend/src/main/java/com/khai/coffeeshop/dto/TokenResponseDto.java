@@ -0,0 +1,10 @@
+package com.khai.coffeeshop.dto;
+
+// expiresIn is the access token lifetime in seconds
+public record TokenResponseDto(
+        String accessToken,
+        String refreshToken,
+        String tokenType,
+        long expiresIn,
+        String role
+) {}
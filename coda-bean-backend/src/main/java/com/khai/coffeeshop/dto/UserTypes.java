@@ -36,4 +36,6 @@ public class UserTypes {
     ) implements UserDto {}
 
     public record LoginDto(String username, String password) {}
+
+    public record RefreshDto(String refreshToken) {}
 }
\ No newline at end of file
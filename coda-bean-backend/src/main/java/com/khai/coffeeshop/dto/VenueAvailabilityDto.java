@@ -0,0 +1,8 @@
+package com.khai.coffeeshop.dto;
+
+import java.util.List;
+
+public record VenueAvailabilityDto(
+        VenueDto venue,
+        List<TimeSlotDto> freeSlots
+) {}
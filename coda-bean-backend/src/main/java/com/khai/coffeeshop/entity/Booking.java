@@ -12,7 +12,11 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_venue_time", columnList = "venue_id, start_time, end_time"),
+        // end_time rides along so the upcoming/past split is decided from the index alone
+        @Index(name = "idx_bookings_user_time", columnList = "user_id, start_time, end_time")
+})
 public class Booking {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,36 @@
+package com.khai.coffeeshop.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "image_blobs")
+public class ImageBlob {
+    // Hex SHA-256 of the image bytes
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(nullable = false, length = 16)
+    private String extension;
+
+    @Column(nullable = false)
+    private Long size;
+
+    @Column(nullable = false)
+    private Integer referenceCount;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public String getFileName() {
+        return hash + extension;
+    }
+}
@@ -0,0 +1,21 @@
+package com.khai.coffeeshop.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Single row, bumped in the same transaction as every menu change so each node can tell its snapshot is stale
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "menu_version")
+public class MenuVersion {
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private Long version;
+}
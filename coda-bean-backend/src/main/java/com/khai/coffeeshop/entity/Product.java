@@ -5,16 +5,30 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "products")
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_category_price", columnList = "category, price, product_id"),
+        @Index(name = "idx_products_category_name", columnList = "category, product_name, product_id"),
+        @Index(name = "idx_products_price", columnList = "price, product_id"),
+        @Index(name = "idx_products_name", columnList = "product_name, product_id")
+})
 public class Product {
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Ids are handed out 50 at a time from id_generators so inserts can be JDBC batched (IDENTITY can't be)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "product_id")
+    @TableGenerator(name = "product_id", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "products", allocationSize = Product.ID_ALLOCATION_SIZE)
     @Column(name = "product_id")
     private Integer id;
     private String category;
@@ -0,0 +1,21 @@
+package com.khai.coffeeshop.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Single row, bumped in the same transaction as every product change, like MenuVersion for the menu
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "product_version")
+public class ProductVersion {
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private Long version;
+}
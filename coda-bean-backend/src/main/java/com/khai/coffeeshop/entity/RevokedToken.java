@@ -0,0 +1,26 @@
+package com.khai.coffeeshop.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "revoked_tokens", indexes = @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at"))
+public class RevokedToken {
+    // The token's jti claim
+    @Id
+    @Column(name = "token_id", length = 36)
+    private String tokenId;
+
+    // Once the token has expired its revocation no longer matters and the row is purged
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+}
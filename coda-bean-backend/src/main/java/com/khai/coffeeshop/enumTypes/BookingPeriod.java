@@ -0,0 +1,20 @@
+package com.khai.coffeeshop.enumTypes;
+
+// Upcoming bookings haven't ended yet (soonest first), past ones have (most recent first)
+public enum BookingPeriod {
+    UPCOMING,
+    PAST;
+
+    // Missing means UPCOMING, unknown periods are null
+    public static BookingPeriod fromParameter(String period) {
+        if (period == null || period.isBlank()) {
+            return UPCOMING;
+        }
+        for (BookingPeriod value : values()) {
+            if (value.name().equalsIgnoreCase(period.trim())) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,56 @@
+package com.khai.coffeeshop.enumTypes;
+
+import java.util.Locale;
+
+// File formats for catalog import and export, both read and written one row at a time
+public enum CatalogFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String mediaType;
+    private final String fileExtension;
+
+    CatalogFormat(String mediaType, String fileExtension) {
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    // Missing means CSV, unknown formats are null
+    public static CatalogFormat fromParameter(String format) {
+        if (format == null || format.isBlank()) {
+            return CSV;
+        }
+        for (CatalogFormat value : values()) {
+            if (value.fileExtension.equalsIgnoreCase(format.trim())) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    // Content-Type of an upload, parameters such as charset are ignored
+    public static CatalogFormat fromMediaType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        String mediaType = contentType.split(";", 2)[0].trim();
+        for (CatalogFormat value : values()) {
+            if (value.mediaType.equalsIgnoreCase(mediaType)) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    public String fileName(String baseName) {
+        return baseName.toLowerCase(Locale.ROOT) + "." + fileExtension;
+    }
+}
@@ -0,0 +1,46 @@
+package com.khai.coffeeshop.enumTypes;
+
+import java.util.Arrays;
+
+// Formats accepted for upload, recognised by their leading magic bytes rather than the client's file name
+public enum ImageFormat {
+    JPEG(".jpg", new int[]{0xFF, 0xD8, 0xFF}),
+    PNG(".png", new int[]{0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A}),
+    GIF(".gif", new int[]{'G', 'I', 'F', '8'}),
+    WEBP(".webp", new int[]{'R', 'I', 'F', 'F', -1, -1, -1, -1, 'W', 'E', 'B', 'P'});
+
+    // Enough bytes to tell every format apart
+    public static final int HEADER_LENGTH = 12;
+
+    private final String extension;
+    private final int[] signature;
+
+    ImageFormat(String extension, int[] signature) {
+        this.extension = extension;
+        this.signature = signature;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static ImageFormat detect(byte[] header, int length) {
+        return Arrays.stream(values())
+                .filter(format -> format.matches(header, length))
+                .findFirst()
+                .orElse(null);
+    }
+
+    // -1 in a signature matches any byte
+    private boolean matches(byte[] header, int length) {
+        if (length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if (signature[i] >= 0 && (header[i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
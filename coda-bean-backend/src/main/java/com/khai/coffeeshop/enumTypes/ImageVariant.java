@@ -0,0 +1,39 @@
+package com.khai.coffeeshop.enumTypes;
+
+import java.util.Locale;
+
+public enum ImageVariant {
+    THUMB(160),
+    CARD(480),
+    FULL(1200);
+
+    private final int width;
+
+    ImageVariant(int width) {
+        this.width = width;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    // "abc_Mug_3.png" -> "abc_Mug_3_card.jpg", variants are always re-encoded as JPEG
+    public String fileName(String imageName) {
+        int dot = imageName.lastIndexOf('.');
+        String baseName = dot > 0 ? imageName.substring(0, dot) : imageName;
+        return baseName + "_" + name().toLowerCase(Locale.ROOT) + ".jpg";
+    }
+
+    // Unknown or missing sizes mean the original upload
+    public static ImageVariant fromParameter(String size) {
+        if (size == null) {
+            return null;
+        }
+        for (ImageVariant variant : values()) {
+            if (variant.name().equalsIgnoreCase(size.trim())) {
+                return variant;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,31 @@
+package com.khai.coffeeshop.enumTypes;
+
+// Sort keys for product listings, the id is always appended as tie-breaker so keyset cursors are unique
+public enum ProductSort {
+    ID("id"),
+    NAME("productName"),
+    PRICE("price");
+
+    private final String property;
+
+    ProductSort(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    // Missing means ID, unknown sorts are null
+    public static ProductSort fromParameter(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return ID;
+        }
+        for (ProductSort value : values()) {
+            if (value.name().equalsIgnoreCase(sort.trim())) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,46 @@
+package com.khai.coffeeshop.init;
+
+import com.khai.coffeeshop.entity.Product;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/*
+Products used to get AUTO_INCREMENT ids, so on a database that already has rows the id generator
+must start past the highest existing id. Runs once the schema is in place and before any request.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductIdGeneratorAligner {
+    private static final String GENERATOR = "products";
+
+    private final JdbcTemplate jdbcTemplate;
+    // Only there so the schema (id_generators included) exists before this runs
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void align() {
+        long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(product_id), 0) FROM products", Long.class);
+        // One full allocation of headroom, whatever the optimizer makes of the stored value
+        long floor = maxId + Product.ID_ALLOCATION_SIZE + 1;
+
+        int updated = jdbcTemplate.update(
+                "UPDATE id_generators SET next_val = ? WHERE sequence_name = ? AND next_val < ?",
+                floor, GENERATOR, floor);
+        if (updated == 0) {
+            Integer rows = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM id_generators WHERE sequence_name = ?", Integer.class, GENERATOR);
+            if (rows == null || rows == 0) {
+                jdbcTemplate.update("INSERT INTO id_generators (sequence_name, next_val) VALUES (?, ?)", GENERATOR, floor);
+                updated = 1;
+            }
+        }
+        if (updated > 0) {
+            log.info("Product id generator moved to {} (highest product id {})", floor, maxId);
+        }
+    }
+}
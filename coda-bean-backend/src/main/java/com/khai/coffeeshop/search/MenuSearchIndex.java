@@ -0,0 +1,129 @@
+package com.khai.coffeeshop.search;
+
+import com.khai.coffeeshop.dto.MenuCategoryDto;
+import com.khai.coffeeshop.dto.MenuItemDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+Immutable inverted index over menu item name, description and tags.
+Terms are kept sorted so a query token matches every term it is a prefix of with a binary search.
+Each posting carries a field weight (name > tag > description) used to rank the results.
+ */
+public final class MenuSearchIndex {
+    private static final float NAME_WEIGHT = 3f;
+    private static final float TAG_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float PREFIX_PENALTY = 0.5f;
+
+    private final MenuItemDto[] items;
+    private final String[] terms;
+    private final int[][] postings;
+    private final float[][] weights;
+
+    private MenuSearchIndex(MenuItemDto[] items, String[] terms, int[][] postings, float[][] weights) {
+        this.items = items;
+        this.terms = terms;
+        this.postings = postings;
+        this.weights = weights;
+    }
+
+    public static MenuSearchIndex build(List<MenuCategoryDto> categories) {
+        MenuItemDto[] items = categories.stream()
+                .flatMap(category -> category.items().stream())
+                .toArray(MenuItemDto[]::new);
+
+        // term -> (item ordinal -> accumulated field weight), ordinals are added in increasing order
+        TreeMap<String, Map<Integer, Float>> termWeights = new TreeMap<>();
+        for (int ordinal = 0; ordinal < items.length; ordinal++) {
+            MenuItemDto item = items[ordinal];
+            addField(termWeights, ordinal, item.name(), NAME_WEIGHT);
+            addField(termWeights, ordinal, item.description(), DESCRIPTION_WEIGHT);
+            for (String tag : item.tags()) {
+                addField(termWeights, ordinal, tag, TAG_WEIGHT);
+            }
+        }
+
+        String[] terms = new String[termWeights.size()];
+        int[][] postings = new int[terms.length][];
+        float[][] weights = new float[terms.length][];
+        int t = 0;
+        for (Map.Entry<String, Map<Integer, Float>> entry : termWeights.entrySet()) {
+            terms[t] = entry.getKey();
+            int[] docs = entry.getValue().keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            float[] docWeights = new float[docs.length];
+            for (int i = 0; i < docs.length; i++) {
+                docWeights[i] = entry.getValue().get(docs[i]);
+            }
+            postings[t] = docs;
+            weights[t] = docWeights;
+            t++;
+        }
+        return new MenuSearchIndex(items, terms, postings, weights);
+    }
+
+    private static void addField(Map<String, Map<Integer, Float>> termWeights, int ordinal, String text, float weight) {
+        for (String token : SearchTokenizer.tokenize(text)) {
+            termWeights.computeIfAbsent(token, key -> new HashMap<>())
+                    .merge(ordinal, weight, Float::sum);
+        }
+    }
+
+    public List<MenuItemDto> all() {
+        return List.of(items);
+    }
+
+    // Every query token has to match (as a whole word or a word prefix), results are ordered by score
+    public List<MenuItemDto> search(String query) {
+        List<String> tokens = SearchTokenizer.tokenize(query);
+        if (tokens.isEmpty()) {
+            return all();
+        }
+
+        float[] scores = new float[items.length];
+        int[] matchedTokens = new int[items.length];
+        float[] tokenScores = new float[items.length];
+
+        for (int tokenIndex = 0; tokenIndex < tokens.size(); tokenIndex++) {
+            String token = tokens.get(tokenIndex);
+            Arrays.fill(tokenScores, 0f);
+
+            for (int t = firstTermWithPrefix(token); t < terms.length && terms[t].startsWith(token); t++) {
+                float factor = terms[t].length() == token.length() ? 1f : PREFIX_PENALTY;
+                int[] docs = postings[t];
+                float[] docWeights = weights[t];
+                for (int i = 0; i < docs.length; i++) {
+                    tokenScores[docs[i]] = Math.max(tokenScores[docs[i]], docWeights[i] * factor);
+                }
+            }
+
+            for (int doc = 0; doc < items.length; doc++) {
+                if (tokenScores[doc] > 0f && matchedTokens[doc] == tokenIndex) {
+                    matchedTokens[doc]++;
+                    scores[doc] += tokenScores[doc];
+                }
+            }
+        }
+
+        List<Integer> hits = new ArrayList<>();
+        for (int doc = 0; doc < items.length; doc++) {
+            if (matchedTokens[doc] == tokens.size()) {
+                hits.add(doc);
+            }
+        }
+        hits.sort(Comparator.<Integer>comparingDouble(doc -> -scores[doc])
+                .thenComparing(doc -> items[doc].name()));
+        return hits.stream().map(doc -> items[doc]).toList();
+    }
+
+    private int firstTermWithPrefix(String prefix) {
+        int index = Arrays.binarySearch(terms, prefix);
+        return index >= 0 ? index : -index - 1;
+    }
+}
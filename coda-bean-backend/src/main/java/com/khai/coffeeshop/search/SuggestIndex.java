@@ -0,0 +1,298 @@
+package com.khai.coffeeshop.search;
+
+import com.khai.coffeeshop.dto.MenuCategoryDto;
+import com.khai.coffeeshop.dto.MenuItemDto;
+import com.khai.coffeeshop.dto.ProductDto;
+import com.khai.coffeeshop.dto.SuggestionDto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/*
+Immutable autocomplete index over menu items and products.
+Documents are scored with BM25 over a weighted term frequency (name > tags/category > description).
+Query tokens match terms exactly, by prefix (last token only, the one still being typed)
+or within a small edit distance, with trigram overlap used to find the fuzzy candidates quickly.
+ */
+public final class SuggestIndex {
+    private static final float NAME_WEIGHT = 3f;
+    private static final float TAG_WEIGHT = 2f;
+    private static final float CATEGORY_WEIGHT = 1f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final SuggestionDto[] documents;
+    private final float[] documentLengths;
+    private final float averageLength;
+
+    private final String[] terms;
+    private final float[] idf;
+    private final int[][] postings;
+    private final float[][] frequencies;
+
+    private final Map<String, int[]> trigramTerms;
+
+    private SuggestIndex(SuggestionDto[] documents, float[] documentLengths, String[] terms, float[] idf,
+                         int[][] postings, float[][] frequencies, Map<String, int[]> trigramTerms) {
+        this.documents = documents;
+        this.documentLengths = documentLengths;
+        this.terms = terms;
+        this.idf = idf;
+        this.postings = postings;
+        this.frequencies = frequencies;
+        this.trigramTerms = trigramTerms;
+
+        float totalLength = 0f;
+        for (float length : documentLengths) {
+            totalLength += length;
+        }
+        this.averageLength = documentLengths.length == 0 ? 1f : totalLength / documentLengths.length;
+    }
+
+    public static SuggestIndex build(List<MenuCategoryDto> menu, List<ProductDto> products) {
+        List<SuggestionDto> documents = new ArrayList<>();
+        List<Map<String, Float>> documentTerms = new ArrayList<>();
+
+        for (MenuCategoryDto category : menu) {
+            for (MenuItemDto item : category.items()) {
+                documents.add(new SuggestionDto(SuggestionDto.MENU_ITEM, item.id(), item.name(),
+                        category.name(), item.price(), item.imageUrl(), 0));
+                Map<String, Float> weighted = new HashMap<>();
+                addField(weighted, item.name(), NAME_WEIGHT);
+                item.tags().forEach(tag -> addField(weighted, tag, TAG_WEIGHT));
+                addField(weighted, category.name(), CATEGORY_WEIGHT);
+                addField(weighted, item.description(), DESCRIPTION_WEIGHT);
+                documentTerms.add(weighted);
+            }
+        }
+        for (ProductDto product : products) {
+            documents.add(new SuggestionDto(SuggestionDto.PRODUCT, product.getId().longValue(),
+                    product.getProductName(), product.getCategory(), BigDecimal.valueOf(product.getPrice()),
+                    product.getImageUrl(), 0));
+            Map<String, Float> weighted = new HashMap<>();
+            addField(weighted, product.getProductName(), NAME_WEIGHT);
+            addField(weighted, product.getCategory(), TAG_WEIGHT);
+            addField(weighted, product.getDescription(), DESCRIPTION_WEIGHT);
+            documentTerms.add(weighted);
+        }
+
+        float[] documentLengths = new float[documents.size()];
+        TreeMap<String, Map<Integer, Float>> termDocuments = new TreeMap<>();
+        for (int doc = 0; doc < documents.size(); doc++) {
+            for (Map.Entry<String, Float> entry : documentTerms.get(doc).entrySet()) {
+                documentLengths[doc] += entry.getValue();
+                termDocuments.computeIfAbsent(entry.getKey(), key -> new HashMap<>()).put(doc, entry.getValue());
+            }
+        }
+
+        int termCount = termDocuments.size();
+        String[] terms = new String[termCount];
+        float[] idf = new float[termCount];
+        int[][] postings = new int[termCount][];
+        float[][] frequencies = new float[termCount][];
+        Map<String, List<Integer>> trigrams = new HashMap<>();
+
+        int t = 0;
+        for (Map.Entry<String, Map<Integer, Float>> entry : termDocuments.entrySet()) {
+            terms[t] = entry.getKey();
+            int[] docs = entry.getValue().keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            float[] tf = new float[docs.length];
+            for (int i = 0; i < docs.length; i++) {
+                tf[i] = entry.getValue().get(docs[i]);
+            }
+            postings[t] = docs;
+            frequencies[t] = tf;
+            idf[t] = (float) Math.log(1 + (documents.size() - docs.length + 0.5) / (docs.length + 0.5));
+            for (String gram : trigrams(terms[t])) {
+                trigrams.computeIfAbsent(gram, key -> new ArrayList<>()).add(t);
+            }
+            t++;
+        }
+
+        Map<String, int[]> trigramTerms = new HashMap<>();
+        trigrams.forEach((gram, ids) -> trigramTerms.put(gram, ids.stream().mapToInt(Integer::intValue).toArray()));
+
+        return new SuggestIndex(documents.toArray(SuggestionDto[]::new), documentLengths,
+                terms, idf, postings, frequencies, trigramTerms);
+    }
+
+    private static void addField(Map<String, Float> weighted, String text, float weight) {
+        for (String token : SearchTokenizer.tokenize(text)) {
+            weighted.merge(token, weight, Float::sum);
+        }
+    }
+
+    public int size() {
+        return documents.length;
+    }
+
+    public List<SuggestionDto> suggest(String query, int limit) {
+        List<String> tokens = SearchTokenizer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        float[] scores = new float[documents.length];
+        int[] matchedTokens = new int[documents.length];
+        float[] tokenScores = new float[documents.length];
+
+        for (int tokenIndex = 0; tokenIndex < tokens.size(); tokenIndex++) {
+            boolean lastToken = tokenIndex == tokens.size() - 1;
+            Map<Integer, Float> matches = matchTerms(tokens.get(tokenIndex), lastToken);
+            if (matches.isEmpty()) {
+                continue;
+            }
+
+            Arrays.fill(tokenScores, 0f);
+            for (Map.Entry<Integer, Float> match : matches.entrySet()) {
+                int term = match.getKey();
+                float similarity = match.getValue();
+                int[] docs = postings[term];
+                float[] tf = frequencies[term];
+                for (int i = 0; i < docs.length; i++) {
+                    int doc = docs[i];
+                    float norm = K1 * (1 - B + B * documentLengths[doc] / averageLength);
+                    float score = similarity * idf[term] * tf[i] * (K1 + 1) / (tf[i] + norm);
+                    tokenScores[doc] = Math.max(tokenScores[doc], score);
+                }
+            }
+            for (int doc = 0; doc < documents.length; doc++) {
+                if (tokenScores[doc] > 0f) {
+                    scores[doc] += tokenScores[doc];
+                    matchedTokens[doc]++;
+                }
+            }
+        }
+
+        // Documents matching more of the query always come first, then by score
+        PriorityQueue<Integer> top = new PriorityQueue<>(Comparator
+                .<Integer>comparingInt(doc -> matchedTokens[doc])
+                .thenComparingDouble(doc -> scores[doc]));
+        for (int doc = 0; doc < documents.length; doc++) {
+            if (matchedTokens[doc] == 0) {
+                continue;
+            }
+            top.add(doc);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        SuggestionDto[] results = new SuggestionDto[top.size()];
+        for (int i = results.length - 1; i >= 0; i--) {
+            int doc = top.poll();
+            float coverage = (float) matchedTokens[doc] / tokens.size();
+            results[i] = documents[doc].withScore(scores[doc] * coverage);
+        }
+        return List.of(results);
+    }
+
+    // term id -> similarity in (0, 1], 1 being an exact match
+    private Map<Integer, Float> matchTerms(String token, boolean lastToken) {
+        Map<Integer, Float> matches = new HashMap<>();
+
+        int first = firstTermWithPrefix(token);
+        if (first < terms.length && terms[first].equals(token)) {
+            matches.put(first, 1f);
+        }
+
+        if (lastToken && token.length() >= 2) {
+            int expansions = 0;
+            for (int t = first; t < terms.length && terms[t].startsWith(token)
+                    && expansions < MAX_PREFIX_EXPANSIONS; t++, expansions++) {
+                matches.putIfAbsent(t, 0.75f + 0.25f * token.length() / terms[t].length());
+            }
+        }
+
+        int maxEdits = maxEdits(token);
+        if (maxEdits > 0) {
+            List<String> grams = trigrams(token);
+            Map<Integer, Integer> overlaps = new HashMap<>();
+            for (String gram : grams) {
+                int[] candidates = trigramTerms.get(gram);
+                if (candidates != null) {
+                    for (int candidate : candidates) {
+                        overlaps.merge(candidate, 1, Integer::sum);
+                    }
+                }
+            }
+            // An insertion, deletion or substitution breaks at most three trigrams, an adjacent transposition four
+            int minOverlap = Math.max(1, grams.size() - 4 * maxEdits);
+            overlaps.forEach((candidate, overlap) -> {
+                if (overlap < minOverlap || matches.containsKey(candidate)) {
+                    return;
+                }
+                int distance = editDistance(token, terms[candidate], maxEdits);
+                if (distance <= maxEdits) {
+                    matches.put(candidate, 1f - 0.3f * distance);
+                }
+            });
+        }
+        return matches;
+    }
+
+    private static int maxEdits(String token) {
+        if (token.length() < 4) {
+            return 0;
+        }
+        return token.length() < 8 ? 1 : 2;
+    }
+
+    private int firstTermWithPrefix(String prefix) {
+        int index = Arrays.binarySearch(terms, prefix);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    static List<String> trigrams(String term) {
+        String padded = "$" + term + "$";
+        List<String> grams = new ArrayList<>(padded.length());
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    // Optimal string alignment distance (Levenshtein plus adjacent transpositions), gives up past maxEdits
+    static int editDistance(String a, String b, int maxEdits) {
+        if (Math.abs(a.length() - b.length()) > maxEdits) {
+            return maxEdits + 1;
+        }
+        int[] previousPrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], previousPrevious[j - 2] + 1);
+                }
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+}
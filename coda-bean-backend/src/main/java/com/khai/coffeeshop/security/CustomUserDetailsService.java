@@ -1,21 +1,39 @@
 package com.khai.coffeeshop.security;
 
 import com.khai.coffeeshop.dao.UserDao;
+import com.khai.coffeeshop.entity.User;
+import com.khai.coffeeshop.service.UserChangedEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 
 @Component
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+    private final PrincipalCache principalCache;
     private final UserDao userDao;
+    private final ApplicationEventPublisher eventPublisher;
+
     @Override
     public UserDetails loadUserByUsername(String username)
             throws UsernameNotFoundException {
-        return userDao.findByUsername(username)
+        return principalCache.findByUsername(username)
                 .map(SecurityUser::new)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
+
+    // Called after a successful login whose stored hash is outdated, newPassword is already encoded
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userDao.findById(((SecurityUser) userDetails).getId())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        user.setPassword(newPassword);
+        User saved = userDao.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId(), saved.getUsername()));
+        return new SecurityUser(saved);
+    }
 }
@@ -0,0 +1,75 @@
+package com.khai.coffeeshop.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.khai.coffeeshop.dao.UserDao;
+import com.khai.coffeeshop.entity.User;
+import com.khai.coffeeshop.service.UserChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/*
+Short-lived cache of users (with their role) by username and by id, so authentication and
+"who is calling" lookups don't repeat the user + role + subclass join on every request.
+Entries are detached and must be treated as read-only; changes go through UserDao and publish
+a UserChangedEvent, which evicts both keys after the commit. Unknown users are not cached.
+ */
+@Component
+public class PrincipalCache {
+    private final UserDao userDao;
+
+    private final Cache<String, User> byUsername;
+    private final Cache<Integer, User> byId;
+
+    public PrincipalCache(
+            UserDao userDao,
+            @Value("${app.security.principal-cache.ttl-seconds:60}") long ttlSeconds,
+            @Value("${app.security.principal-cache.max-size:10000}") long maxSize,
+            MeterRegistry meterRegistry) {
+        this.userDao = userDao;
+        this.byUsername = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byUsername, "principals-by-username");
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "principals-by-id");
+    }
+
+    public Optional<User> findByUsername(String username) {
+        User user = byUsername.get(username, key -> userDao.findByUsername(key).orElse(null));
+        if (user != null) {
+            byId.asMap().putIfAbsent(user.getId(), user);
+        }
+        return Optional.ofNullable(user);
+    }
+
+    public Optional<User> findById(int id) {
+        User user = byId.get(id, key -> userDao.findById(key).orElse(null));
+        if (user != null) {
+            byUsername.asMap().putIfAbsent(user.getUsername(), user);
+        }
+        return Optional.ofNullable(user);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.username() != null) {
+            byUsername.invalidate(event.username());
+        }
+        if (event.userId() != null) {
+            byId.invalidate(event.userId());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.khai.coffeeshop.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.Collections;
+
+// The caller as stated by a verified access token, built without touching the database
+public record TokenPrincipal(int id, String username, String role) {
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return role == null ? Collections.emptySet() : Collections.singleton(new SimpleGrantedAuthority(role));
+    }
+}
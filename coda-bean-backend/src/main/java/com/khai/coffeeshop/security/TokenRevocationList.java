@@ -0,0 +1,70 @@
+package com.khai.coffeeshop.security;
+
+import com.khai.coffeeshop.dao.RevokedTokenDao;
+import com.khai.coffeeshop.entity.RevokedToken;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+Ids of tokens revoked before they expired. The database table is shared by every node, each node keeps
+an in-memory copy so verifying a request never needs a query, and polls the table for revocations made
+elsewhere. A revocation made on another node is therefore seen here within one sync interval.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationList {
+    // Poll window overlap, covers revocations whose transaction committed after a previous poll ran
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final RevokedTokenDao revokedTokenDao;
+
+    // token id -> expiry, epoch seconds
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    public boolean isRevoked(String tokenId) {
+        return revoked.containsKey(tokenId);
+    }
+
+    // False when the token had already been revoked, on this node or any other
+    public boolean revoke(String tokenId, Instant expiresAt) {
+        revoked.put(tokenId, expiresAt.getEpochSecond());
+        try {
+            revokedTokenDao.insert(tokenId, expiresAt, Instant.now());
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        sync();
+        log.info("Token revocation list loaded {} entries", revoked.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.token.revocation-sync-ms:30000}",
+            initialDelayString = "${app.security.token.revocation-sync-ms:30000}")
+    public void sync() {
+        Instant now = Instant.now();
+        for (RevokedToken token : revokedTokenDao.findByRevokedAtAfterAndExpiresAtAfter(lastSync.minus(SYNC_OVERLAP), now)) {
+            revoked.put(token.getTokenId(), token.getExpiresAt().getEpochSecond());
+        }
+        lastSync = now;
+
+        long nowSeconds = now.getEpochSecond();
+        revoked.values().removeIf(expiresAt -> expiresAt < nowSeconds);
+        revokedTokenDao.deleteExpired(now);
+    }
+}
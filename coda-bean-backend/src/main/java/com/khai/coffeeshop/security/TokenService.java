@@ -0,0 +1,175 @@
+package com.khai.coffeeshop.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.khai.coffeeshop.dto.TokenResponseDto;
+import com.khai.coffeeshop.entity.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+/*
+Signed bearer tokens: base64url(JSON claims) + "." + base64url(HMAC-SHA256 of the first part).
+Access tokens are short-lived and verified from the signature, expiry and the in-memory revocation
+list alone. Refresh tokens are single use: each refresh revokes the one presented (in the shared
+revocation table, so a copy can't be replayed on another node) and re-reads the user, so a deleted
+user or a changed role takes effect at the next refresh.
+Every node needs the same app.security.token.secret for tokens to be accepted across the cluster.
+ */
+@Slf4j
+@Service
+public class TokenService {
+    public static final String TOKEN_TYPE = "Bearer";
+
+    private static final String ACCESS = "access";
+    private static final String REFRESH = "refresh";
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ObjectMapper objectMapper;
+    private final TokenRevocationList revocationList;
+    private final PrincipalCache principalCache;
+    private final SecretKeySpec key;
+    private final long accessTtlSeconds;
+    private final long refreshTtlSeconds;
+
+    // typ is "access" or "refresh", sub the user id, exp epoch seconds
+    record Claims(String typ, int sub, String usr, String role, long iat, long exp, String jti) {}
+
+    public TokenService(
+            ObjectMapper objectMapper,
+            TokenRevocationList revocationList,
+            PrincipalCache principalCache,
+            @Value("${app.security.token.secret:}") String secret,
+            @Value("${app.security.token.access-ttl-seconds:900}") long accessTtlSeconds,
+            @Value("${app.security.token.refresh-ttl-seconds:1209600}") long refreshTtlSeconds) {
+        this.objectMapper = objectMapper;
+        this.revocationList = revocationList;
+        this.principalCache = principalCache;
+        this.accessTtlSeconds = accessTtlSeconds;
+        this.refreshTtlSeconds = refreshTtlSeconds;
+        this.key = new SecretKeySpec(secretBytes(secret), ALGORITHM);
+    }
+
+    private static byte[] secretBytes(String secret) {
+        if (secret == null || secret.isBlank()) {
+            log.warn("app.security.token.secret is not set, using a random key: tokens won't survive a restart "
+                    + "or be accepted by other instances");
+            byte[] random = new byte[32];
+            new SecureRandom().nextBytes(random);
+            return random;
+        }
+        byte[] bytes = Base64.getDecoder().decode(secret.trim());
+        if (bytes.length < 32) {
+            throw new IllegalStateException("app.security.token.secret must be at least 32 bytes, base64 encoded");
+        }
+        return bytes;
+    }
+
+    // The token of an "Authorization: Bearer <token>" header, null for anything else
+    public static String bearerToken(String authorizationHeader) {
+        String prefix = TOKEN_TYPE + " ";
+        if (authorizationHeader == null || !authorizationHeader.regionMatches(true, 0, prefix, 0, prefix.length())) {
+            return null;
+        }
+        return authorizationHeader.substring(prefix.length()).trim();
+    }
+
+    public TokenResponseDto issue(User user) {
+        String role = new SecurityUser(user).getAuthorities().stream()
+                .findFirst()
+                .map(GrantedAuthority::getAuthority)
+                .orElse(null);
+        long now = Instant.now().getEpochSecond();
+        String accessToken = sign(new Claims(ACCESS, user.getId(), user.getUsername(), role,
+                now, now + accessTtlSeconds, UUID.randomUUID().toString()));
+        String refreshToken = sign(new Claims(REFRESH, user.getId(), user.getUsername(), role,
+                now, now + refreshTtlSeconds, UUID.randomUUID().toString()));
+        return new TokenResponseDto(accessToken, refreshToken, TOKEN_TYPE, accessTtlSeconds, role);
+    }
+
+    public Optional<TokenPrincipal> authenticate(String accessToken) {
+        return verify(accessToken, ACCESS)
+                .map(claims -> new TokenPrincipal(claims.sub(), claims.usr(), claims.role()));
+    }
+
+    public TokenResponseDto refresh(String refreshToken) {
+        Claims claims = verify(refreshToken, REFRESH)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token"));
+        if (!revocationList.revoke(claims.jti(), Instant.ofEpochSecond(claims.exp()))) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token already used");
+        }
+        User user = principalCache.findById(claims.sub())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User no longer exists"));
+        return issue(user);
+    }
+
+    // Ignores tokens that are invalid or expired already, there is nothing left to revoke
+    public void revoke(String token) {
+        verify(token, ACCESS).or(() -> verify(token, REFRESH))
+                .ifPresent(claims -> revocationList.revoke(claims.jti(), Instant.ofEpochSecond(claims.exp())));
+    }
+
+    private String sign(Claims claims) {
+        try {
+            String payload = ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+            return payload + "." + ENCODER.encodeToString(mac(payload));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Optional<Claims> verify(String token, String expectedType) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return Optional.empty();
+        }
+        String payload = token.substring(0, dot);
+        try {
+            if (!MessageDigest.isEqual(mac(payload), DECODER.decode(token.substring(dot + 1)))) {
+                return Optional.empty();
+            }
+            Claims claims = objectMapper.readValue(DECODER.decode(payload), Claims.class);
+            if (!expectedType.equals(claims.typ())
+                    || claims.exp() <= Instant.now().getEpochSecond()
+                    || claims.jti() == null
+                    || revocationList.isRevoked(claims.jti())) {
+                return Optional.empty();
+            }
+            return Optional.of(claims);
+        } catch (IllegalArgumentException | IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    // Mac instances aren't thread-safe, one per call is cheap next to the rest of a request
+    private byte[] mac(String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
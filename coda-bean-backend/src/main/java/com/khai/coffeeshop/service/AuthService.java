@@ -2,18 +2,28 @@ package com.khai.coffeeshop.service;
 
 import com.khai.coffeeshop.dao.RoleDao;
 import com.khai.coffeeshop.dao.UserDao;
+import com.khai.coffeeshop.dto.TokenResponseDto;
 import com.khai.coffeeshop.dto.UserTypes;
 import com.khai.coffeeshop.entity.Admin;
 import com.khai.coffeeshop.entity.Customer;
 import com.khai.coffeeshop.entity.User;
+import com.khai.coffeeshop.security.SecurityUser;
+import com.khai.coffeeshop.security.TokenService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -22,20 +32,42 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final RoleDao roleDao;
     private final UserDao userDao;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ThreadPoolTaskExecutor passwordTaskExecutor;
+    private final TokenService tokenService;
+    private final ImageService imageService;
 
-    public String login(String username, String password) {
-        Authentication authentication=authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        username,password
-                )
-        );
-        SecurityContextHolder.getContext()
-                .setAuthentication(authentication);
-        StringBuilder sb=new StringBuilder();
-        for(var role:authentication.getAuthorities()){
-            sb.append(role.getAuthority());
+    /*
+    The password check runs on passwordTaskExecutor, the request thread is released while bcrypt works.
+    Fails with 429 when the pool's queue is full and 401 on bad credentials.
+     */
+    public CompletableFuture<TokenResponseDto> login(String username, String password) {
+        try {
+            return CompletableFuture.supplyAsync(() -> authenticate(username, password), passwordTaskExecutor);
+        } catch (TaskRejectedException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many logins in progress, try again shortly");
         }
-        return sb.toString();
+    }
+
+    private TokenResponseDto authenticate(String username, String password) {
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(username, password)
+            );
+        } catch (AuthenticationException e) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid username or password");
+        }
+        return tokenService.issue(((SecurityUser) authentication.getPrincipal()).user());
+    }
+
+    public TokenResponseDto refresh(String refreshToken) {
+        return tokenService.refresh(refreshToken);
+    }
+
+    public void logout(String accessToken, String refreshToken) {
+        tokenService.revoke(accessToken);
+        tokenService.revoke(refreshToken);
     }
 
     @Transactional
@@ -79,6 +111,10 @@ public class AuthService {
         User user = userDao.findByUsername(username).orElseThrow();
         System.out.println(user);
         userDao.delete(user);
+        if (user.getImageUrl() != null) {
+            imageService.deleteProfileImage(user.getImageUrl());
+        }
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getUsername()));
         return "User %s deleted successfully!".formatted(user.getUsername());
     }
 }
\ No newline at end of file
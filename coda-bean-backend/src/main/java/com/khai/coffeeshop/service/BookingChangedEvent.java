@@ -0,0 +1,6 @@
+package com.khai.coffeeshop.service;
+
+import com.khai.coffeeshop.dto.BookingInterval;
+
+// Published by VenueBookingService when a booking is created or cancelled, handled once the transaction commits
+public record BookingChangedEvent(BookingInterval interval, boolean cancelled) {}
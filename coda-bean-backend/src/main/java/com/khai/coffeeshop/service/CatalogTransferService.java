@@ -0,0 +1,307 @@
+package com.khai.coffeeshop.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.khai.coffeeshop.dao.ProductDao;
+import com.khai.coffeeshop.dto.ImportReportDto;
+import com.khai.coffeeshop.dto.MenuCategoryDto;
+import com.khai.coffeeshop.dto.MenuItemDto;
+import com.khai.coffeeshop.dto.MenuItemRowDto;
+import com.khai.coffeeshop.dto.ProductDto;
+import com.khai.coffeeshop.entity.Product;
+import com.khai.coffeeshop.enumTypes.CatalogFormat;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*
+Streaming import and export of products and menu items as CSV or NDJSON.
+Imports parse one row at a time, keep at most one chunk of valid rows in memory and commit it
+as its own transaction; invalid rows are skipped and reported with their row number.
+A CSV line the parser can't read ends the import there, the report says where and what was saved before it.
+Exports write page by page (keyset over the product id, the cached snapshot for the menu)
+straight to the response, so neither side depends on the catalog fitting in the heap.
+ */
+@Service
+@RequiredArgsConstructor
+public class CatalogTransferService {
+    private static final int IMPORT_CHUNK_SIZE = 1000;
+    private static final int EXPORT_PAGE_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+
+    private static final CsvSchema PRODUCT_COLUMNS = CsvSchema.builder()
+            .addColumn("id")
+            .addColumn("category")
+            .addColumn("productName")
+            .addColumn("description")
+            .addNumberColumn("price")
+            .addColumn("imageUrl")
+            .build()
+            .withHeader();
+
+    private static final CsvSchema MENU_ITEM_COLUMNS = CsvSchema.builder()
+            .addColumn("id")
+            .addColumn("category")
+            .addColumn("name")
+            .addColumn("description")
+            .addNumberColumn("price")
+            .addBooleanColumn("available")
+            .addColumn("imageUrl")
+            .addNumberColumn("preparationTime")
+            .addArrayColumn("tags", ";")
+            .build()
+            .withHeader();
+
+    // Imports take their columns from the header line, in any order
+    private static final CsvSchema HEADER_COLUMNS = CsvSchema.emptySchema()
+            .withHeader()
+            .withArrayElementSeparator(";");
+
+    private final ProductService productService;
+    private final ProductDao productDao;
+    private final MenuService menuService;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ImportReportDto importProducts(InputStream input, CatalogFormat format) throws IOException {
+        return importRows(input, format, ProductDto.class,
+                CatalogTransferService::validateProduct,
+                productService::createProducts);
+    }
+
+    public ImportReportDto importMenuItems(InputStream input, CatalogFormat format) throws IOException {
+        Map<String, Long> categoryIds = new HashMap<>();
+        for (MenuCategoryDto category : menuService.getAllCategoriesWithItems()) {
+            categoryIds.put(categoryKey(category.name()), category.id());
+        }
+
+        try {
+            return importRows(input, format, MenuItemRowDto.class,
+                    row -> validateMenuItem(row, categoryIds),
+                    rows -> menuService.importMenuItems(rows.stream().collect(Collectors.groupingBy(
+                            row -> categoryIds.get(categoryKey(row.category())),
+                            LinkedHashMap::new,
+                            Collectors.mapping(MenuItemRowDto::toMenuItemDto, Collectors.toList())
+                    ))));
+        } finally {
+            // One menu rebuild for the whole import, also covering the chunks saved before a failure
+            eventPublisher.publishEvent(new MenuChangedEvent());
+        }
+    }
+
+    public void exportProducts(OutputStream output, CatalogFormat format) throws IOException {
+        try (SequenceWriter writer = rowWriter(output, format, PRODUCT_COLUMNS)) {
+            int lastId = 0;
+            List<Product> page;
+            do {
+                page = productDao.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(EXPORT_PAGE_SIZE));
+                for (Product product : page) {
+                    writer.write(productService.mappToDto(product));
+                    lastId = product.getId();
+                }
+                writer.flush();
+            } while (page.size() == EXPORT_PAGE_SIZE);
+        }
+    }
+
+    public void exportMenuItems(OutputStream output, CatalogFormat format) throws IOException {
+        try (SequenceWriter writer = rowWriter(output, format, MENU_ITEM_COLUMNS)) {
+            for (MenuCategoryDto category : menuService.getAllCategoriesWithItems()) {
+                for (MenuItemDto item : category.items()) {
+                    writer.write(MenuItemRowDto.of(category, item));
+                }
+                writer.flush();
+            }
+        }
+    }
+
+    private <T> ImportReportDto importRows(InputStream input, CatalogFormat format, Class<T> type,
+                                           Function<T, String> validator, Consumer<List<T>> saveChunk)
+            throws IOException {
+        ImportRun<T> run = new ImportRun<>(validator, saveChunk);
+        if (format == CatalogFormat.NDJSON) {
+            readNdjson(input, type, run);
+        } else {
+            readCsv(input, type, run);
+        }
+        return run.finish();
+    }
+
+    private <T> void readNdjson(InputStream input, Class<T> type, ImportRun<T> run) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(type);
+        BufferedReader lines = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        long row = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            row++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                run.accept(row, reader.readValue(line));
+            } catch (JsonProcessingException e) {
+                run.reject(row, e.getOriginalMessage());
+            }
+        }
+    }
+
+    private <T> void readCsv(InputStream input, Class<T> type, ImportRun<T> run) throws IOException {
+        MappingIterator<T> rows = CSV_MAPPER.readerFor(type)
+                .with(HEADER_COLUMNS)
+                .with(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readValues(input);
+        long row = 0;
+        while (true) {
+            long next = row + 1;
+            try {
+                if (!rows.hasNextValue()) {
+                    return;
+                }
+                row = next;
+                run.accept(row, rows.nextValue());
+            } catch (JsonMappingException e) {
+                // A value that doesn't fit its column, the iterator carries on with the next row
+                run.reject(row, e.getOriginalMessage());
+            } catch (JsonProcessingException e) {
+                // Broken quoting or the like, nothing after it can be trusted to line up with the columns
+                long line = e.getLocation() == null ? -1 : e.getLocation().getLineNr();
+                run.reject(next, "unreadable at line %d, import stopped: %s".formatted(line, e.getOriginalMessage()));
+                return;
+            }
+        }
+    }
+
+    private SequenceWriter rowWriter(OutputStream output, CatalogFormat format, CsvSchema columns) throws IOException {
+        ObjectWriter writer = format == CatalogFormat.NDJSON
+                ? objectMapper.writer().withRootValueSeparator("\n")
+                : CSV_MAPPER.writer(columns);
+        // The response stream belongs to the container
+        return writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValues(output);
+    }
+
+    private static String validateProduct(ProductDto product) {
+        if (product.getProductName() == null || product.getProductName().isBlank()) {
+            return "productName is required";
+        }
+        if (product.getCategory() == null || product.getCategory().isBlank()) {
+            return "category is required";
+        }
+        if (!(product.getPrice() > 0)) {
+            return "price must be positive";
+        }
+        return null;
+    }
+
+    private static String validateMenuItem(MenuItemRowDto item, Map<String, Long> categoryIds) {
+        if (item.name() == null || item.name().isBlank()) {
+            return "name is required";
+        }
+        if (item.description() == null) {
+            return "description is required";
+        }
+        if (item.price() == null || item.price().signum() <= 0) {
+            return "price must be positive";
+        }
+        if (item.category() == null || !categoryIds.containsKey(categoryKey(item.category()))) {
+            return "unknown category: " + item.category();
+        }
+        return null;
+    }
+
+    private static String categoryKey(String name) {
+        return name == null ? null : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class ImportRun<T> {
+        private final Function<T, String> validator;
+        private final Consumer<List<T>> saveChunk;
+
+        private final List<T> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        private long chunkFirstRow;
+        private long chunkLastRow;
+
+        private long imported;
+        private long failed;
+        private final List<ImportReportDto.RowError> errors = new ArrayList<>();
+
+        private ImportRun(Function<T, String> validator, Consumer<List<T>> saveChunk) {
+            this.validator = validator;
+            this.saveChunk = saveChunk;
+        }
+
+        void accept(long row, T value) {
+            String error = value == null ? "empty row" : validator.apply(value);
+            if (error != null) {
+                reject(row, error);
+                return;
+            }
+            if (chunk.isEmpty()) {
+                chunkFirstRow = row;
+            }
+            chunkLastRow = row;
+            chunk.add(value);
+            if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        void reject(long row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportReportDto.RowError(row, message));
+            }
+        }
+
+        ImportReportDto finish() {
+            flush();
+            return new ImportReportDto(imported, failed, List.copyOf(errors));
+        }
+
+        // A chunk that fails to save is rolled back as a whole and reported against its first row
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                saveChunk.accept(List.copyOf(chunk));
+                imported += chunk.size();
+            } catch (RuntimeException e) {
+                failed += chunk.size() - 1;
+                reject(chunkFirstRow, "rows %d-%d not saved: %s".formatted(chunkFirstRow, chunkLastRow,
+                        NestedExceptionUtils.getMostSpecificCause(e).getMessage()));
+            }
+            chunk.clear();
+        }
+    }
+}
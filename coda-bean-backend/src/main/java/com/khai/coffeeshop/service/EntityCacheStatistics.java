@@ -0,0 +1,57 @@
+package com.khai.coffeeshop.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/*
+Hit/miss counters of the Hibernate second-level and query caches (regions are configured in entity-cache.conf).
+Counts are cumulative since startup, the element count is whatever the region currently holds.
+ */
+@Component
+public class EntityCacheStatistics {
+    private final Statistics statistics;
+
+    public record RegionStats(String region, long hits, long misses, long puts, long entries) {}
+
+    public record Stats(long hits, long misses, long puts,
+                        long queryHits, long queryMisses, long queryPuts,
+                        List<RegionStats> regions) {}
+
+    public EntityCacheStatistics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public Stats stats() {
+        List<RegionStats> regions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(this::regionStats)
+                .filter(Objects::nonNull)
+                .toList();
+        return new Stats(
+                statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(),
+                statistics.getSecondLevelCachePutCount(),
+                statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount(),
+                regions
+        );
+    }
+
+    // Null for the update-timestamps region, which only tracks table modification times
+    private RegionStats regionStats(String regionName) {
+        CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+        if (region == null) {
+            return null;
+        }
+        return new RegionStats(regionName, region.getHitCount(), region.getMissCount(),
+                region.getPutCount(), region.getElementCountInMemory());
+    }
+}
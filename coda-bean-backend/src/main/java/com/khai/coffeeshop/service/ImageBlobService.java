@@ -0,0 +1,52 @@
+package com.khai.coffeeshop.service;
+
+import com.khai.coffeeshop.dao.ImageBlobDao;
+import com.khai.coffeeshop.entity.ImageBlob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/*
+Reference counts of the content-addressed image files, one row per distinct image.
+Counts change inside the caller's transaction under the row's PESSIMISTIC_WRITE lock, which also
+serializes the file moves for that image across nodes until the transaction ends.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+@RequiredArgsConstructor
+public class ImageBlobService {
+    private final ImageBlobDao imageBlobDao;
+
+    // Committed on its own, so concurrent first uploads of the same bytes lock one row instead of racing the insert
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void register(String hash, String extension, long size) {
+        imageBlobDao.insertIfAbsent(hash, extension, size, LocalDateTime.now());
+    }
+
+    // Empty when the image isn't in the store
+    public Optional<ImageBlob> acquire(String hash) {
+        return imageBlobDao.findByHashForUpdate(hash)
+                .map(blob -> {
+                    blob.setReferenceCount(blob.getReferenceCount() + 1);
+                    return blob;
+                });
+    }
+
+    // Returns true when the last reference is gone and the bytes can be deleted
+    public boolean release(String hash) {
+        return imageBlobDao.findByHashForUpdate(hash)
+                .map(blob -> {
+                    if (blob.getReferenceCount() <= 1) {
+                        imageBlobDao.delete(blob);
+                        return true;
+                    }
+                    blob.setReferenceCount(blob.getReferenceCount() - 1);
+                    return false;
+                })
+                .orElse(false);
+    }
+}
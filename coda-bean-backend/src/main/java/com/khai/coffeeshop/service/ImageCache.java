@@ -0,0 +1,117 @@
+package com.khai.coffeeshop.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+Size-bounded cache of image bytes, keyed by "<directory>/<file name>".
+Caffeine weighs entries by their byte size and evicts by recency and frequency, reads take no lock.
+Entries are read from disk straight into read-only buffers, on the heap or off-heap when
+app.images.cache.off-heap is set. Published as cache.* meters with cache=images, like the principal caches.
+ */
+@Component
+public class ImageCache implements MeterBinder {
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final boolean offHeap;
+
+    private final Cache<String, CachedImage> entries;
+
+    // Bumped by every invalidation, a load that started before one is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public record CachedImage(ByteBuffer content, MediaType contentType, long lastModified, String etag) {}
+
+    public record Stats(long hits, long misses, long evictions, long entries, long bytes, long maxBytes) {}
+
+    public ImageCache(
+            @Value("${app.images.cache.max-bytes:67108864}") long maxBytes,
+            @Value("${app.images.cache.max-entry-bytes:2097152}") long maxEntryBytes,
+            @Value("${app.images.cache.off-heap:false}") boolean offHeap) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.min(maxEntryBytes, maxBytes);
+        this.offHeap = offHeap;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .<String, CachedImage>weigher((key, image) -> image.content().capacity())
+                .recordStats()
+                .build();
+    }
+
+    public CachedImage get(String key) {
+        return entries.getIfPresent(key);
+    }
+
+    public boolean accepts(long size) {
+        return size <= maxEntryBytes;
+    }
+
+    // Taken before reading the file that is then passed to load
+    public long generation() {
+        return generation.get();
+    }
+
+    /*
+    Reads the file once, into the buffer that is cached and served. Files over the entry limit are not cached,
+    neither is anything loaded across an invalidation, the caller still gets the bytes it read.
+     */
+    public CachedImage load(String key, long generation, Path file, long size,
+                            MediaType contentType, long lastModified, String etag) throws IOException {
+        ByteBuffer buffer = offHeap ? ByteBuffer.allocateDirect((int) size) : ByteBuffer.allocate((int) size);
+        try (FileChannel channel = FileChannel.open(file)) {
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Keep reading until the buffer is full or the file ends
+            }
+        }
+        buffer.flip();
+        CachedImage image = new CachedImage(buffer.asReadOnlyBuffer(), contentType, lastModified, etag);
+        if (!accepts(size)) {
+            return image;
+        }
+
+        entries.put(key, image);
+        // An invalidation that ran meanwhile may have missed this entry, drop it again (ours only)
+        if (this.generation.get() != generation) {
+            entries.asMap().remove(key, image);
+        }
+        return image;
+    }
+
+    public void invalidate(String key) {
+        generation.incrementAndGet();
+        entries.invalidate(key);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new CaffeineCacheMetrics<>(entries, "images", Tags.empty()).bindTo(registry);
+        Gauge.builder("cache.bytes", this, cache -> cache.stats().bytes())
+                .tags("cache", "images")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public Stats stats() {
+        CacheStats stats = entries.stats();
+        long bytes = entries.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+        return new Stats(stats.hitCount(), stats.missCount(), stats.evictionCount(),
+                entries.estimatedSize(), bytes, maxBytes);
+    }
+}
@@ -0,0 +1,6 @@
+package com.khai.coffeeshop.service;
+
+import java.nio.file.Path;
+
+// Published when the last reference to a stored image is released. Its files wait in trash until the transaction ends
+public record ImageDeletedEvent(String imageName, Path trash) {}
@@ -1,55 +1,90 @@
 package com.khai.coffeeshop.service;
 
+import com.khai.coffeeshop.enumTypes.ImageFormat;
+import com.khai.coffeeshop.enumTypes.ImageVariant;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.UUID;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
 
+@Slf4j
 @Service
+@Timed("coda.service")
+@RequiredArgsConstructor
 public class ImageService {
-    private final String productImageDir = Paths.get(System.getProperty("user.dir"), "uploads", "product_images").toString();
+    private static final String PRODUCT_CACHE_PREFIX = "product/";
+    private static final String PROFILE_CACHE_PREFIX = "profile/";
+    private static final String BLOB_CACHE_PREFIX = "blob/";
 
-    private final String profileImageDir = Paths.get(System.getProperty("user.dir"), "uploads", "profile_images").toString();
+    private static final Pattern BLOB_NAME = Pattern.compile("[0-9a-f]{64}\\.[a-z0-9]{1,10}");
 
-    public String saveProductImage(Integer id, String productName, MultipartFile imageFile) throws IOException {
-        if (imageFile == null || imageFile.isEmpty()) {
-            throw new IllegalArgumentException("Invalid image file: File is empty or null");
-        }
+    private static final int UPLOAD_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_REGISTER_ATTEMPTS = 3;
 
-        File uploadDir = new File(productImageDir);
-        if (!uploadDir.exists()) {
-            boolean created = uploadDir.mkdirs();
-            if (!created) {
-                throw new IOException("Failed to create upload directory: " + uploadDir.getAbsolutePath());
-            }
-        }
+    private final ImageCache imageCache;
+    private final ImageVariantService imageVariantService;
+    private final ImageBlobService imageBlobService;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
 
-        String originalFilename = imageFile.getOriginalFilename();
-        if (originalFilename == null || !originalFilename.contains(".")) {
-            throw new IllegalArgumentException("Invalid file name");
-        }
+    @Value("${app.images.upload.max-bytes:5242880}")
+    private long maxUploadBytes;
 
-        String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-        String fileNameToSave = UUID.randomUUID() + "_" + productName + "_" + id.toString() + fileExtension;
+    private final String blobImageDir = Paths.get(System.getProperty("user.dir"), "uploads", "images").toString();
 
-        File uploadFile = new File(new File(productImageDir), fileNameToSave);
-        System.out.println("Saving file to: " + uploadFile.getAbsolutePath()); // Debug log
-        imageFile.transferTo(uploadFile);
+    private final String productImageDir = Paths.get(System.getProperty("user.dir"), "uploads", "product_images").toString();
 
-        return fileNameToSave;
+    private final String profileImageDir = Paths.get(System.getProperty("user.dir"), "uploads", "profile_images").toString();
+
+    public String saveProductImage(MultipartFile imageFile) throws IOException {
+        return storeImage(imageFile);
     }
 
     public String deleteProductImage(String imageName) {
         System.out.println("Inside deleteImage method");
+        if (isContentAddressed(imageName)) {
+            return releaseImage(imageName);
+        }
 
         Path imagePath = Paths.get(productImageDir, imageName);
         System.out.println("Attempting to delete: " + imagePath.toAbsolutePath());
+        invalidate(PRODUCT_CACHE_PREFIX, imageName);
+        imageVariantService.deleteVariants(imagePath);
 
         try {
             if (Files.exists(imagePath)) {
@@ -66,36 +101,19 @@ public class ImageService {
         }
     }
 
-    public String saveProfileImage(String userName, MultipartFile imageFile) throws IOException {
-        if (imageFile == null || imageFile.isEmpty()) {
-            throw new IllegalArgumentException("Invalid image file: File is empty or null");
-        }
-
-        File uploadDir = new File(profileImageDir);
-        if (!uploadDir.exists()) {
-            boolean created = uploadDir.mkdirs();
-            if (!created) {
-                throw new IOException("Failed to create upload directory: " + uploadDir.getAbsolutePath());
-            }
-        }
-
-        String originalFilename = imageFile.getOriginalFilename();
-        if (originalFilename == null || !originalFilename.contains(".")) {
-            throw new IllegalArgumentException("Invalid file name");
-        }
-
-        String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-        String fileNameToSave = UUID.randomUUID() + "_" + userName + fileExtension;
-
-        File uploadFile = new File(new File(profileImageDir), fileNameToSave);
-        System.out.println("Saving file to: " + uploadFile.getAbsolutePath()); // Debug log
-        imageFile.transferTo(uploadFile);
-
-        return fileNameToSave;
+    public String saveProfileImage(MultipartFile imageFile) throws IOException {
+        return storeImage(imageFile);
     }
+
     public String deleteProfileImage(String imageName) {
         System.out.println("Inside delete image method");
+        if (isContentAddressed(imageName)) {
+            return releaseImage(imageName);
+        }
+
         File imageFile = new File(new File(profileImageDir), imageName);
+        invalidate(PROFILE_CACHE_PREFIX, imageName);
+        imageVariantService.deleteVariants(imageFile.toPath());
         if (imageFile.exists()) {
             boolean deleted = imageFile.delete();
             if (deleted) {
@@ -108,4 +126,341 @@ public class ImageService {
         }
     }
 
+    /*
+    Uploads are stored once per distinct content under "<sha256><ext>", so identical pictures
+    for several products or users share one file and every URL points at bytes that never change.
+    Each save takes a reference that the owning entity takes over (see attachImage),
+    the file and its variants go away with the last one.
+     */
+    private String storeImage(MultipartFile imageFile) throws IOException {
+        if (imageFile == null || imageFile.isEmpty()) {
+            throw new IllegalArgumentException("Invalid image file: File is empty or null");
+        }
+        try (InputStream input = imageFile.getInputStream()) {
+            return storeImage(input, imageFile.getSize());
+        }
+    }
+
+    /*
+    Single pass over the upload: the format is checked on the first bytes, the size limit while reading,
+    and the hash is computed on the same buffer that is written, straight into a temp file next to the
+    final blob so the rename into place is atomic. Bad uploads fail before the rest of the body is read.
+    declaredLength is the Content-Length when known, -1 otherwise.
+     */
+    public String storeImage(InputStream input, long declaredLength) throws IOException {
+        if (declaredLength > maxUploadBytes) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Image exceeds " + maxUploadBytes + " bytes");
+        }
+
+        byte[] buffer = new byte[UPLOAD_BUFFER_SIZE];
+        int headerLength = input.readNBytes(buffer, 0, ImageFormat.HEADER_LENGTH);
+        if (headerLength == 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid image file: File is empty");
+        }
+        ImageFormat format = ImageFormat.detect(buffer, headerLength);
+        if (format == null) {
+            throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                    "Only JPEG, PNG, GIF and WebP images are accepted");
+        }
+
+        Path blobDir = Paths.get(blobImageDir);
+        Files.createDirectories(blobDir);
+
+        Path temporary = Files.createTempFile(blobDir, ".upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            long size = 0;
+            try (OutputStream output = Files.newOutputStream(temporary)) {
+                int read = headerLength;
+                do {
+                    size += read;
+                    if (size > maxUploadBytes) {
+                        throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                                "Image exceeds " + maxUploadBytes + " bytes");
+                    }
+                    digest.update(buffer, 0, read);
+                    output.write(buffer, 0, read);
+                } while ((read = input.read(buffer)) != -1);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String fileName = hash + format.getExtension();
+            takeUploadReference(hash, format, size, temporary, blobDir.resolve(fileName));
+            return fileName;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /*
+    The upload's reference commits together with the file. The move happens under the blob row's lock,
+    so it can't interleave with the last release of the same bytes on any node (see releaseImage).
+     */
+    private void takeUploadReference(String hash, ImageFormat format, long size, Path temporary, Path target)
+            throws IOException {
+        TransactionTemplate transaction = transaction(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            // The row can disappear between register and acquire when its last reference goes meanwhile
+            for (int attempt = 0; attempt < MAX_REGISTER_ATTEMPTS; attempt++) {
+                imageBlobService.register(hash, format.getExtension(), size);
+                Boolean acquired = transaction.execute(status -> {
+                    if (imageBlobService.acquire(hash).isEmpty()) {
+                        return false;
+                    }
+                    if (!Files.exists(target)) {
+                        move(temporary, target);
+                        scheduleVariants(target);
+                    }
+                    return true;
+                });
+                if (Boolean.TRUE.equals(acquired)) {
+                    return;
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        throw new IllegalStateException("Could not store image " + hash);
+    }
+
+    /*
+    Reference bookkeeping for entities that point at an image, called inside the entity's transaction.
+    uploaded: the name comes straight from storeImage and the entity takes over that upload's reference,
+    which is handed back if the transaction rolls back. Otherwise the stored image gains a reference.
+    Names from before the store (and null) are not counted.
+     */
+    public void attachImage(String imageName, boolean uploaded) {
+        if (!isContentAddressed(imageName)) {
+            return;
+        }
+        if (uploaded) {
+            eventPublisher.publishEvent(new ImageUploadedEvent(imageName));
+            return;
+        }
+        imageBlobService.acquire(hash(imageName))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown image: " + imageName));
+    }
+
+    // The counterpart of attachImage, also inside the entity's transaction
+    public void detachImage(String imageName) {
+        if (isContentAddressed(imageName)) {
+            releaseImage(imageName);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onUploadRolledBack(ImageUploadedEvent event) {
+        transaction(TransactionDefinition.PROPAGATION_REQUIRES_NEW).executeWithoutResult(status ->
+                release(event.imageName()));
+    }
+
+    /*
+    Drops one reference to a content-addressed image, names from before the store are left alone.
+    Joins the caller's transaction. Releasing the last reference moves the files aside while the row
+    is still locked. They are deleted once the transaction commits and put back if it rolls back.
+     */
+    public String releaseImage(String imageName) {
+        if (!isContentAddressed(imageName)) {
+            return "Image not managed by the store: " + imageName;
+        }
+        return transaction(TransactionDefinition.PROPAGATION_REQUIRED).execute(status -> release(imageName));
+    }
+
+    private String release(String imageName) {
+        if (!imageBlobService.release(hash(imageName))) {
+            return "Image reference released: " + imageName;
+        }
+        try {
+            eventPublisher.publishEvent(new ImageDeletedEvent(imageName, moveToTrash(imageName)));
+            return "Image deleted successfully: " + imageName;
+        } catch (IOException e) {
+            log.warn("Failed to delete {}", imageName, e);
+            return "Failed to delete image due to an error: " + imageName;
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onImageDeleted(ImageDeletedEvent event) {
+        invalidate(BLOB_CACHE_PREFIX, event.imageName());
+        deleteTrash(event.trash());
+    }
+
+    // Unless an upload of the same bytes has put them back already
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onImageDeleteRolledBack(ImageDeletedEvent event) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(event.trash())) {
+            for (Path file : files) {
+                try {
+                    Files.move(file, Paths.get(blobImageDir).resolve(file.getFileName()));
+                } catch (FileAlreadyExistsException e) {
+                    // Same content, the one in place is as good
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to restore {}", event.imageName(), e);
+        }
+        deleteTrash(event.trash());
+    }
+
+    private Path moveToTrash(String imageName) throws IOException {
+        Path blobDir = Paths.get(blobImageDir);
+        Path trash = Files.createTempDirectory(blobDir, ".trash-");
+        List<String> names = new ArrayList<>();
+        names.add(imageName);
+        for (ImageVariant variant : ImageVariant.values()) {
+            names.add(variant.fileName(imageName));
+        }
+        for (String name : names) {
+            Path file = blobDir.resolve(name);
+            if (Files.exists(file)) {
+                Files.move(file, trash.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        return trash;
+    }
+
+    private static void deleteTrash(Path trash) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(trash)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(trash);
+        } catch (IOException e) {
+            log.warn("Failed to delete {}", trash, e);
+        }
+    }
+
+    private static void move(Path source, Path target) {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private TransactionTemplate transaction(int propagation) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(propagation);
+        return transaction;
+    }
+
+    private static boolean isContentAddressed(String imageName) {
+        return imageName != null && BLOB_NAME.matcher(imageName).matches();
+    }
+
+    private static String hash(String imageName) {
+        return imageName.substring(0, imageName.indexOf('.'));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Optional<StoredImage> loadProductImage(String imageName, ImageVariant variant) {
+        if (isContentAddressed(imageName)) {
+            return loadVariant(blobImageDir, BLOB_CACHE_PREFIX, imageName, variant);
+        }
+        return loadVariant(productImageDir, PRODUCT_CACHE_PREFIX, imageName, variant);
+    }
+
+    public Optional<StoredImage> loadProfileImage(String imageName, ImageVariant variant) {
+        if (isContentAddressed(imageName)) {
+            return loadVariant(blobImageDir, BLOB_CACHE_PREFIX, imageName, variant);
+        }
+        return loadVariant(profileImageDir, PROFILE_CACHE_PREFIX, imageName, variant);
+    }
+
+    // Falls back to the original, flagged as such, while the variants are still being generated (or if they never could be)
+    private Optional<StoredImage> loadVariant(String directory, String cachePrefix, String imageName, ImageVariant variant) {
+        if (variant != null) {
+            Optional<StoredImage> resized = loadImage(directory, cachePrefix, variant.fileName(imageName));
+            if (resized.isPresent()) {
+                return resized;
+            }
+        }
+        Optional<StoredImage> original = loadImage(directory, cachePrefix, imageName);
+        return variant == null ? original : original.map(StoredImage::asFallback);
+    }
+
+    private void scheduleVariants(Path original) {
+        try {
+            imageVariantService.generateVariants(original);
+        } catch (TaskRejectedException e) {
+            log.warn("Image processing queue is full, {} will be served without variants", original.getFileName());
+        }
+    }
+
+    private void invalidate(String cachePrefix, String imageName) {
+        imageCache.invalidate(cachePrefix + imageName);
+        for (ImageVariant variant : ImageVariant.values()) {
+            imageCache.invalidate(cachePrefix + variant.fileName(imageName));
+        }
+    }
+
+    public ImageCache.Stats cacheStats() {
+        return imageCache.stats();
+    }
+
+    /*
+    Hot images are served from the in-memory cache, anything else is streamed from disk.
+    Small enough images are cached on the way through. Unknown or out-of-directory names are not found.
+     */
+    private Optional<StoredImage> loadImage(String directory, String cachePrefix, String imageName) {
+        long generation = imageCache.generation();
+        ImageCache.CachedImage cached = imageCache.get(cachePrefix + imageName);
+        if (cached != null) {
+            return Optional.of(fromCache(cached, imageName));
+        }
+
+        Path baseDir = Paths.get(directory).toAbsolutePath().normalize();
+        Path imagePath = baseDir.resolve(imageName).normalize();
+        if (!imagePath.startsWith(baseDir) || imagePath.equals(baseDir)) {
+            return Optional.empty();
+        }
+
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(imagePath, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+        if (!attributes.isRegularFile()) {
+            return Optional.empty();
+        }
+
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        // Content-addressed names (and their variants) already identify the exact bytes
+        String etag = BLOB_CACHE_PREFIX.equals(cachePrefix)
+                ? imageName.substring(0, imageName.lastIndexOf('.'))
+                : Long.toHexString(lastModified) + "-" + Long.toHexString(attributes.size());
+        MediaType contentType = MediaTypeFactory.getMediaType(imageName)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+
+        if (imageCache.accepts(attributes.size())) {
+            try {
+                return Optional.of(fromCache(
+                        imageCache.load(cachePrefix + imageName, generation, imagePath, attributes.size(),
+                                contentType, lastModified, etag),
+                        imageName
+                ));
+            } catch (IOException e) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(new StoredImage(new FileSystemResource(imagePath), contentType, lastModified, etag, false));
+    }
+
+    private static StoredImage fromCache(ImageCache.CachedImage cached, String imageName) {
+        return new StoredImage(
+                new ByteBufferResource(cached.content(), imageName),
+                cached.contentType(),
+                cached.lastModified(),
+                cached.etag(),
+                false
+        );
+    }
 }
@@ -0,0 +1,4 @@
+package com.khai.coffeeshop.service;
+
+// Published when an entity takes over a freshly stored image, its reference is handed back if the transaction rolls back
+public record ImageUploadedEvent(String imageName) {}
@@ -0,0 +1,128 @@
+package com.khai.coffeeshop.service;
+
+import com.khai.coffeeshop.enumTypes.ImageVariant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+
+/*
+Turns an uploaded original into resized JPEG variants next to it (see ImageVariant).
+Runs on the bounded image executor, until it finishes the original is served for every size.
+ */
+@Slf4j
+@Service
+public class ImageVariantService {
+    private static final float JPEG_QUALITY = 0.8f;
+    private static final long MAX_PIXELS = 40_000_000L;
+
+    @Async("imageTaskExecutor")
+    public void generateVariants(Path original) {
+        try {
+            BufferedImage source = read(original);
+            if (source == null) {
+                log.warn("Skipping variants for {}: not a readable image", original.getFileName());
+                return;
+            }
+            long originalSize = Files.size(original);
+            for (ImageVariant variant : ImageVariant.values()) {
+                Path target = original.resolveSibling(variant.fileName(original.getFileName().toString()));
+                writeJpeg(resize(source, variant.getWidth()), target);
+                // Small uploads can come out bigger once re-encoded, the original is served instead then
+                if (Files.size(target) >= originalSize) {
+                    Files.delete(target);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to generate variants for {}", original.getFileName(), e);
+        }
+    }
+
+    public void deleteVariants(Path original) {
+        for (ImageVariant variant : ImageVariant.values()) {
+            try {
+                Files.deleteIfExists(original.resolveSibling(variant.fileName(original.getFileName().toString())));
+            } catch (IOException e) {
+                log.warn("Failed to delete {} variant of {}", variant, original.getFileName(), e);
+            }
+        }
+    }
+
+    // Checks the dimensions from the header first so a tiny file can't decode into a huge bitmap
+    private static BufferedImage read(Path original) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS) {
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Never upscales, and flattens transparency onto white since JPEG has no alpha channel
+    private static BufferedImage resize(BufferedImage source, int maxWidth) {
+        int width = Math.min(maxWidth, source.getWidth());
+        int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Path temporary = Files.createTempFile(target.getParent(), ".variant-", ".tmp");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temporary.toFile())) {
+                ImageWriteParam parameters = writer.getDefaultWriteParam();
+                parameters.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                parameters.setCompressionQuality(JPEG_QUALITY);
+                parameters.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), parameters);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+}
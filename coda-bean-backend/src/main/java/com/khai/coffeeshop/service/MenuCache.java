@@ -0,0 +1,157 @@
+package com.khai.coffeeshop.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.khai.coffeeshop.dao.MenuCategoryDao;
+import com.khai.coffeeshop.dao.MenuVersionDao;
+import com.khai.coffeeshop.dto.MenuCategoryDto;
+import com.khai.coffeeshop.dto.MenuSnapshot;
+import com.khai.coffeeshop.entity.MenuCategory;
+import com.khai.coffeeshop.entity.MenuItem;
+import com.khai.coffeeshop.search.MenuSearchIndex;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/*
+Holds an immutable snapshot of the full menu so reads never touch the database.
+The snapshot is built on the first read and rebuilt after every committed menu change,
+together with the pre-rendered JSON (plain and gzip), an ETag derived from its content
+and the search index, so every read sees one consistent version of the menu.
+The version is the persisted menu_version row, the same on every node for the same content. Changes made
+on another node are picked up by polling that row, so they show here within one sync interval.
+The second-level cache of menu entities is local to each node too, it is evicted before such a rebuild.
+ */
+@Component
+@RequiredArgsConstructor
+public class MenuCache {
+    private final MenuCategoryDao menuCategoryDao;
+    private final MenuVersionDao menuVersionDao;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final AtomicReference<MenuSnapshot> snapshot = new AtomicReference<>();
+    // Not synchronized: the rebuild runs a query, and a virtual thread blocked inside a monitor pins its carrier
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    public MenuSnapshot current() {
+        MenuSnapshot current = snapshot.get();
+        if (current != null) {
+            return current;
+        }
+        rebuildLock.lock();
+        try {
+            current = snapshot.get();
+            return current != null ? current : rebuild();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMenuChanged(MenuChangedEvent event) {
+        // Nobody has read the menu yet (e.g. while seeding), the first read will build it
+        if (snapshot.get() != null) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.menu.version-sync-ms:5000}",
+            initialDelayString = "${app.menu.version-sync-ms:5000}")
+    public void sync() {
+        MenuSnapshot current = snapshot.get();
+        if (current != null && menuVersionDao.findCurrent().orElse(0L) != current.version()) {
+            evictEntities();
+            rebuild();
+        }
+    }
+
+    private void evictEntities() {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(MenuCategory.class);
+        cache.evictEntityData(MenuItem.class);
+        cache.evictCollectionData(MenuCategory.class.getName() + ".items");
+        cache.evictCollectionData(MenuItem.class.getName() + ".tags");
+    }
+
+    private MenuSnapshot rebuild() {
+        rebuildLock.lock();
+        try {
+            return load();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private MenuSnapshot load() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transaction.setReadOnly(true);
+
+        try {
+            // The version first, a change committing meanwhile leaves it behind and the next sync reloads
+            long version = transaction.execute(status -> menuVersionDao.findCurrent().orElse(0L));
+            List<MenuCategoryDto> categories = transaction.execute(status ->
+                    menuCategoryDao.findAllWithItemsAndTags().stream()
+                            .map(MenuCategoryDto::fromEntity)
+                            .toList()
+            );
+            byte[] json = objectMapper.writeValueAsBytes(categories);
+            MenuSnapshot rebuilt = new MenuSnapshot(
+                    version,
+                    categories,
+                    MenuSearchIndex.build(categories),
+                    contentHash(json),
+                    json,
+                    gzip(json)
+            );
+            snapshot.set(rebuilt);
+            return rebuilt;
+        } catch (JsonProcessingException e) {
+            snapshot.set(null);
+            throw new IllegalStateException("Failed to render menu", e);
+        } catch (RuntimeException e) {
+            // Never keep serving a menu we know is stale, the next read retries the load
+            snapshot.set(null);
+            throw e;
+        }
+    }
+
+    private static String contentHash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,4 @@
+package com.khai.coffeeshop.service;
+
+// Published by MenuService on every menu mutation, handled once the transaction commits
+public record MenuChangedEvent() {}
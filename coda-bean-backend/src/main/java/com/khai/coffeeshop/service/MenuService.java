@@ -2,28 +2,43 @@ package com.khai.coffeeshop.service;
 
 import com.khai.coffeeshop.dao.MenuCategoryDao;
 import com.khai.coffeeshop.dao.MenuItemDao;
+import com.khai.coffeeshop.dao.MenuVersionDao;
 import com.khai.coffeeshop.dto.MenuCategoryDto;
 import com.khai.coffeeshop.dto.MenuItemDto;
+import com.khai.coffeeshop.dto.MenuSnapshot;
 import com.khai.coffeeshop.entity.MenuCategory;
 import com.khai.coffeeshop.entity.MenuItem;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 
 @Service
+@Timed("coda.service")
 @Transactional
 @RequiredArgsConstructor
 public class MenuService {
     private final MenuCategoryDao menuCategoryDao;
     private final MenuItemDao menuItemDao;
+    private final MenuVersionDao menuVersionDao;
+    private final MenuCache menuCache;
+    private final ApplicationEventPublisher eventPublisher;
 
+    // Served from memory, no transaction (and no pooled connection) needed
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public MenuSnapshot getMenuSnapshot() {
+        return menuCache.current();
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<MenuCategoryDto> getAllCategoriesWithItems() {
-        return menuCategoryDao.findAll().stream()
-                .map(MenuCategoryDto::fromEntity)
-                .toList();
+        return menuCache.current().categories();
     }
 
     public MenuCategoryDto createCategory(MenuCategoryDto categoryDto) {
@@ -33,6 +48,7 @@ public class MenuService {
         category.setIconEmoji(categoryDto.iconEmoji());
 
         MenuCategory saved = menuCategoryDao.save(category);
+        menuChanged();
         return MenuCategoryDto.fromEntity(saved);
     }
 
@@ -42,11 +58,32 @@ public class MenuService {
 
         MenuItem item = itemDto.toEntity();
         item.setCategory(category);
+        // Both sides, otherwise the category's item list in the second-level cache goes stale
+        category.getItems().add(item);
 
         MenuItem saved = menuItemDao.save(item);
+        menuChanged();
         return MenuItemDto.fromEntity(saved);
     }
 
+    // One transaction for the whole batch. The caller publishes MenuChangedEvent once, after its last batch
+    public int importMenuItems(Map<Long, List<MenuItemDto>> itemsByCategory) {
+        int imported = 0;
+        for (Map.Entry<Long, List<MenuItemDto>> entry : itemsByCategory.entrySet()) {
+            MenuCategory category = menuCategoryDao.findById(entry.getKey())
+                    .orElseThrow(() -> new EntityNotFoundException("Category not found"));
+            for (MenuItemDto itemDto : entry.getValue()) {
+                MenuItem item = itemDto.toEntity();
+                item.setCategory(category);
+                category.getItems().add(item);
+                menuItemDao.save(item);
+                imported++;
+            }
+        }
+        menuVersionDao.increment();
+        return imported;
+    }
+
     public MenuItemDto updateMenuItem(Long itemId, MenuItemDto itemDto) {
         MenuItem item = menuItemDao.findById(itemId)
                 .orElseThrow(() -> new EntityNotFoundException("Item not found"));
@@ -59,16 +96,28 @@ public class MenuService {
         item.setPreparationTime(itemDto.preparationTime());
         item.setTags(itemDto.tags());
 
+        menuChanged();
         return MenuItemDto.fromEntity(item);
     }
 
     public void deleteMenuItem(Long itemId) {
-        menuItemDao.deleteById(itemId);
+        menuItemDao.findById(itemId).ifPresent(item -> {
+            if (item.getCategory() != null) {
+                item.getCategory().getItems().remove(item);
+            }
+            menuItemDao.delete(item);
+        });
+        menuChanged();
+    }
+
+    // Every node compares the persisted version with its snapshot's, the event rebuilds this node's right away
+    private void menuChanged() {
+        menuVersionDao.increment();
+        eventPublisher.publishEvent(new MenuChangedEvent());
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<MenuItemDto> searchItems(String query) {
-        return menuItemDao.search(query).stream()
-                .map(MenuItemDto::fromEntity)
-                .toList();
+        return menuCache.current().searchIndex().search(query);
     }
 }
\ No newline at end of file
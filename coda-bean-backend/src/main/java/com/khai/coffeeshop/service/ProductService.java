@@ -1,13 +1,38 @@
 package com.khai.coffeeshop.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.khai.coffeeshop.dao.ProductDao;
+import com.khai.coffeeshop.dao.ProductVersionDao;
 import com.khai.coffeeshop.dto.ProductDto;
+import com.khai.coffeeshop.dto.ProductPageDto;
 import com.khai.coffeeshop.entity.Product;
+import com.khai.coffeeshop.enumTypes.ProductSort;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 
 /*
@@ -21,12 +46,87 @@ imageUrl
 @Service
 @RequiredArgsConstructor
 public class ProductService {
+    // A multiple of hibernate.jdbc.batch_size
+    private static final int IMPORT_CHUNK_SIZE = 1000;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final TypeReference<Map<String, Object>> CURSOR_TYPE = new TypeReference<>() {};
+
     private final ProductDao productDao;
+    private final ProductVersionDao productVersionDao;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ImageService imageService;
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
 
     public List<ProductDto> getAllProducts() {
         return productDao.findAll().stream().map(this::mappToDto).toList();
     }
 
+    /*
+    Keyset pagination: each page continues after the sort key (and id) of the previous page's last row,
+    so deep pages cost the same as the first one and rows added meanwhile don't shift the pages.
+    The cursor is that key as base64 JSON, valid only with the same filters and sort.
+     */
+    @Transactional(readOnly = true)
+    public ProductPageDto getProductPage(String category, Double minPrice, Double maxPrice,
+                                         ProductSort sort, Sort.Direction direction, int size, String cursor) {
+        List<Specification<Product>> filters = new ArrayList<>();
+        if (category != null && !category.isBlank()) {
+            filters.add((root, query, builder) -> builder.equal(root.get("category"), category));
+        }
+        if (minPrice != null) {
+            filters.add((root, query, builder) -> builder.greaterThanOrEqualTo(root.get("price"), minPrice));
+        }
+        if (maxPrice != null) {
+            filters.add((root, query, builder) -> builder.lessThanOrEqualTo(root.get("price"), maxPrice));
+        }
+
+        Sort order = sort == ProductSort.ID
+                ? Sort.by(direction, "id")
+                : Sort.by(direction, sort.getProperty(), "id");
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        ScrollPosition position = cursor == null || cursor.isBlank()
+                ? ScrollPosition.keyset()
+                : ScrollPosition.forward(decodeCursor(cursor, order));
+
+        Window<Product> window = productDao.findBy(Specification.allOf(filters), query -> query
+                .sortBy(order)
+                .limit(pageSize)
+                .scroll(position));
+
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? encodeCursor(((KeysetScrollPosition) window.positionAt(window.size() - 1)).getKeys())
+                : null;
+        return new ProductPageDto(window.getContent().stream().map(this::mappToDto).toList(), nextCursor);
+    }
+
+    public List<String> getCategories() {
+        return productDao.findCategories();
+    }
+
+    private String encodeCursor(Map<String, ?> keys) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(keys));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Only the properties of the requested sort are accepted, they end up in the query
+    private Map<String, Object> decodeCursor(String cursor, Sort order) {
+        try {
+            Map<String, Object> keys = objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), CURSOR_TYPE);
+            Set<String> expected = order.stream().map(Sort.Order::getProperty).collect(Collectors.toSet());
+            if (!keys.keySet().equals(expected) || keys.containsValue(null)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor does not match the requested sort");
+            }
+            return keys;
+        } catch (IllegalArgumentException | IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
     @Transactional(readOnly = true)
     public ProductDto getProductDetail(int id) {
         Product product = productDao.findProductById(id)
@@ -34,7 +134,15 @@ public class ProductService {
         return mappToDto(product);
     }
 
+    @Transactional
     public String createNewProduct(ProductDto productDto) {
+        return createNewProduct(productDto, false);
+    }
+
+    // With imageUploaded the dto carries a freshly stored image, whose reference the product takes over
+    @Transactional
+    public String createNewProduct(ProductDto productDto, boolean imageUploaded) {
+        imageService.attachImage(productDto.getImageUrl(), imageUploaded);
         Product product = new Product();
         product.setCategory(productDto.getCategory());
         product.setProductName(productDto.getProductName());
@@ -42,36 +150,107 @@ public class ProductService {
         product.setPrice(productDto.getPrice());
         product.setImageUrl(productDto.getImageUrl());
         productDao.save(product);
+        productsChanged();
         return "new Product %s is created".formatted(product.getProductName());
     }
 
+    @Transactional
     public String deleteProduct(int id) {
         Product product = productDao.findProductById(id).orElseThrow();
         productDao.delete(product);
+        imageService.detachImage(product.getImageUrl());
+        productsChanged();
         return "Product %s is deleted".formatted(product.getProductName());
     }
 
+    @Transactional
     public String updateProduct(int id, ProductDto productDto) {
+        return updateProduct(id, productDto, false);
+    }
+
+    /*
+    With imageUploaded the dto carries a freshly stored image, whose reference the product takes over
+    from the start so it is handed back whatever fails. Any other change of imageUrl takes a reference
+    to the new image. Either way the previous image loses the product's reference.
+     */
+    @Transactional
+    public String updateProduct(int id, ProductDto productDto, boolean imageUploaded) {
+        if (imageUploaded) {
+            imageService.attachImage(productDto.getImageUrl(), true);
+        }
         Product product = productDao.findProductById(id).orElseThrow();
+        String previousImage = product.getImageUrl();
         product.setCategory(productDto.getCategory());
         product.setProductName(productDto.getProductName());
         product.setDescription(productDto.getDescription());
         product.setPrice(productDto.getPrice());
         product.setImageUrl(productDto.getImageUrl());
         productDao.save(product);
+        boolean imageChanged = !Objects.equals(previousImage, product.getImageUrl());
+        if (imageChanged && !imageUploaded) {
+            imageService.attachImage(product.getImageUrl(), false);
+        }
+        if (imageChanged || imageUploaded) {
+            imageService.detachImage(previousImage);
+        }
+        productsChanged();
         return "Product %s is updated".formatted(product.getProductName());
     }
 
+    // imageName is a freshly stored image, its reference is handed back if the product is gone
+    @Transactional
+    public String updateProductImage(int id, String imageName) {
+        imageService.attachImage(imageName, true);
+        Product product = productDao.findProductById(id)
+                .orElseThrow(() -> new NoSuchElementException("Product not found: " + id));
+        String previousImage = product.getImageUrl();
+        product.setImageUrl(imageName);
+        productDao.save(product);
+        imageService.detachImage(previousImage);
+        productsChanged();
+        return "Product %s image is updated".formatted(product.getProductName());
+    }
+
+    // Other nodes compare the persisted version with the one their suggest index was built from
+    private void productsChanged() {
+        productVersionDao.increment();
+        eventPublisher.publishEvent(new ProductsChangedEvent());
+    }
+
     public ProductDto mappToDto(Product product) {
         return new ProductDto(product.getId(), product.getCategory(), product.getProductName(), product.getDescription(), product.getPrice(), product.getImageUrl());
     }
 
     public Product convertToProduct(ProductDto productDto) {
-        return new Product(productDto.getCategory(), productDto.getProductName(), productDto.getDescription(), productDto.getPrice());
+        return new Product(productDto.getCategory(), productDto.getProductName(), productDto.getDescription(),
+                productDto.getPrice(), productDto.getImageUrl());
     }
 
+    /*
+    Each chunk is its own transaction: rows are persisted without per-row round trips (pooled ids,
+    JDBC batches of hibernate.jdbc.batch_size), then flushed and detached so the persistence context
+    stays small however large the import. A failing chunk rolls back alone, earlier chunks stay saved.
+    Stored images the rows point at gain their references in the chunk's transaction.
+     */
     public String createProducts(List<ProductDto> productDtos) {
-        productDtos.forEach(productdto -> productDao.save(convertToProduct(productdto)));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            for (int from = 0; from < productDtos.size(); from += IMPORT_CHUNK_SIZE) {
+                List<ProductDto> chunk = productDtos.subList(from, Math.min(from + IMPORT_CHUNK_SIZE, productDtos.size()));
+                transaction.executeWithoutResult(status -> {
+                    chunk.forEach(productDto -> {
+                        imageService.attachImage(productDto.getImageUrl(), false);
+                        entityManager.persist(convertToProduct(productDto));
+                    });
+                    productVersionDao.increment();
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+            }
+        } finally {
+            // Also when a chunk fails, the ones before it are saved
+            eventPublisher.publishEvent(new ProductsChangedEvent());
+        }
         return "Products saved successfully!";
     }
 }
@@ -0,0 +1,4 @@
+package com.khai.coffeeshop.service;
+
+// Published by ProductService on every product mutation, handled once the transaction commits
+public record ProductsChangedEvent() {}
@@ -0,0 +1,17 @@
+package com.khai.coffeeshop.service;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+
+// fallback: a variant was asked for but isn't there (yet), body is the original instead
+public record StoredImage(
+        Resource body,
+        MediaType contentType,
+        long lastModified,
+        String etag,
+        boolean fallback
+) {
+    public StoredImage asFallback() {
+        return new StoredImage(body, contentType, lastModified, etag, true);
+    }
+}
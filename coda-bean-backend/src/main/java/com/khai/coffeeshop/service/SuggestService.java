@@ -0,0 +1,86 @@
+package com.khai.coffeeshop.service;
+
+import com.khai.coffeeshop.dao.ProductVersionDao;
+import com.khai.coffeeshop.dto.MenuSnapshot;
+import com.khai.coffeeshop.dto.ProductDto;
+import com.khai.coffeeshop.dto.SuggestionDto;
+import com.khai.coffeeshop.entity.Product;
+import com.khai.coffeeshop.search.SuggestIndex;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+Autocomplete across the menu and the product catalog.
+The index is rebuilt lazily by the first query that sees a newer menu snapshot or a product change,
+every other query only reads the current immutable index. Product changes made on this node are seen
+right away, those made on another node once the product_version row is polled (app.products.version-sync-ms).
+A new version also evicts this node's second-level cache of products, which would otherwise serve the old rows.
+ */
+@Service
+@RequiredArgsConstructor
+public class SuggestService {
+    public static final int MAX_LIMIT = 50;
+
+    private final MenuCache menuCache;
+    private final ProductService productService;
+    private final ProductVersionDao productVersionDao;
+    private final EntityManagerFactory entityManagerFactory;
+
+    // Local change counter, bumped by this node's events and by every new persisted version seen
+    private final AtomicLong productVersion = new AtomicLong();
+    private volatile long persistedProductVersion = -1;
+    private volatile IndexedCatalog indexed;
+    // The rebuild loads every product, a lock rather than a monitor keeps virtual threads from pinning on it
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private record IndexedCatalog(long menuVersion, long productVersion, SuggestIndex index) {}
+
+    public List<SuggestionDto> suggest(String query, int limit) {
+        return currentIndex().suggest(query, Math.min(Math.max(limit, 1), MAX_LIMIT));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        productVersion.incrementAndGet();
+    }
+
+    @Scheduled(fixedDelayString = "${app.products.version-sync-ms:5000}",
+            initialDelayString = "${app.products.version-sync-ms:5000}")
+    public void sync() {
+        long persisted = productVersionDao.findCurrent().orElse(0L);
+        if (persisted != persistedProductVersion) {
+            entityManagerFactory.getCache().evict(Product.class);
+            persistedProductVersion = persisted;
+            productVersion.incrementAndGet();
+        }
+    }
+
+    private SuggestIndex currentIndex() {
+        MenuSnapshot menu = menuCache.current();
+        IndexedCatalog current = indexed;
+        if (current != null && current.menuVersion() == menu.version()
+                && current.productVersion() == productVersion.get()) {
+            return current.index();
+        }
+        rebuildLock.lock();
+        try {
+            current = indexed;
+            long products = productVersion.get();
+            if (current == null || current.menuVersion() != menu.version() || current.productVersion() != products) {
+                List<ProductDto> catalog = productService.getAllProducts();
+                current = new IndexedCatalog(menu.version(), products, SuggestIndex.build(menu.categories(), catalog));
+                indexed = current;
+            }
+            return current.index();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+}
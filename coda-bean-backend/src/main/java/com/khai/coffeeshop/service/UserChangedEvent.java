@@ -0,0 +1,4 @@
+package com.khai.coffeeshop.service;
+
+// Published when a user is updated or deleted, handled once the transaction commits
+public record UserChangedEvent(Integer userId, String username) {}
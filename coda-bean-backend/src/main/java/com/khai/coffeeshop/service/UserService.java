@@ -2,29 +2,62 @@ package com.khai.coffeeshop.service;
 
 import com.khai.coffeeshop.dao.UserDao;
 import com.khai.coffeeshop.entity.User;
+import com.khai.coffeeshop.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
     private final UserDao userDao;
+    private final ImageService imageService;
+    private final PrincipalCache principalCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // filename is a freshly stored image, so its reference is handed back if the user is missing
+    @Transactional
     public String updateUserProfileUrl(String username, String filename) {
+        imageService.attachImage(filename, true);
         User user = userDao.findByUsername(username).orElse(null);
         if (user == null) {
+            imageService.detachImage(filename);
             return "user doesn't exist";
         }
 
+        String previousImage = user.getImageUrl();
         user.setImageUrl(filename);
         userDao.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getUsername()));
+        imageService.detachImage(previousImage);
         return filename;
     }
 
+    @Transactional
+    public String removeProfileImage(String username) {
+        User user = userDao.findByUsername(username).orElse(null);
+        if (user == null) {
+            return "user doesn't exist";
+        }
+        if (user.getImageUrl() == null) {
+            return "Image not found";
+        }
+
+        String imageName = user.getImageUrl();
+        user.setImageUrl(null);
+        userDao.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getUsername()));
+        return imageService.deleteProfileImage(imageName);
+    }
+
+    // Cached and detached, read-only
     public User getUserByUsername(String username) {
-        return userDao.findByUsername(username).orElse(null);
+        return principalCache.findByUsername(username).orElse(null);
     }
 
+    // Cached and detached, read-only
     public User getUserById(int id) {
-        return userDao.findById(id).orElse(null);
+        return principalCache.findById(id).orElse(null);
     }
 }
\ No newline at end of file
@@ -1,32 +1,65 @@
 package com.khai.coffeeshop.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.khai.coffeeshop.dao.BookingDao;
 import com.khai.coffeeshop.dao.VenueDao;
 import com.khai.coffeeshop.dto.AvailabilityCheckDto;
+import com.khai.coffeeshop.dto.AvailabilitySearchDto;
+import com.khai.coffeeshop.dto.BookingInterval;
+import com.khai.coffeeshop.dto.BookingPageDto;
 import com.khai.coffeeshop.dto.BookingRequestDto;
 import com.khai.coffeeshop.dto.BookingResponseDto;
+import com.khai.coffeeshop.dto.BookingView;
+import com.khai.coffeeshop.dto.TimeSlotDto;
+import com.khai.coffeeshop.dto.VenueAvailabilityDto;
 import com.khai.coffeeshop.dto.VenueDto;
 import com.khai.coffeeshop.entity.Booking;
 import com.khai.coffeeshop.entity.User;
 import com.khai.coffeeshop.entity.Venue;
+import com.khai.coffeeshop.enumTypes.BookingPeriod;
 import com.khai.coffeeshop.enumTypes.BookingStatus;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("coda.service")
 @RequiredArgsConstructor
 public class VenueBookingService {
+    private static final int MAX_PAGE_SIZE = 100;
 
     private final VenueDao venueRepository;
     private final BookingDao bookingDao;
     private final UserService userService;
+    private final VenueCalendar venueCalendar;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.venues.opening-time:08:00}")
+    private String openingTime;
+
+    @Value("${app.venues.closing-time:22:00}")
+    private String closingTime;
 
     public List<VenueDto> getAllAvailableVenues() {
         return venueRepository.findByIsAvailableTrue().stream()
@@ -35,28 +68,78 @@ public class VenueBookingService {
     }
 
     public boolean checkAvailability(AvailabilityCheckDto availabilityCheck) {
-        List<Booking> conflictingBookings = bookingDao.findConflictingBookings(
+        validateInterval(availabilityCheck.startTime(), availabilityCheck.endTime());
+        return venueCalendar.isFree(
                 availabilityCheck.venueId(),
                 availabilityCheck.startTime(),
                 availabilityCheck.endTime()
         );
-        return conflictingBookings.isEmpty();
     }
 
+    // Gaps between active bookings within the venue's opening hours on that day
+    public List<TimeSlotDto> getFreeSlots(Long venueId, LocalDate date) {
+        return venueCalendar.freeSlots(
+                venueId,
+                date.atTime(LocalTime.parse(openingTime)),
+                date.atTime(LocalTime.parse(closingTime))
+        );
+    }
+
+    /*
+    All venues with room for the party and a free stretch of at least durationMinutes inside the window,
+    smallest fitting venue first. One venue query, the free slots come from the calendar.
+     */
+    public List<VenueAvailabilityDto> searchAvailability(AvailabilitySearchDto search) {
+        validateInterval(search.startTime(), search.endTime());
+        Duration window = Duration.between(search.startTime(), search.endTime());
+        Duration duration = search.durationMinutes() == null ? window : Duration.ofMinutes(search.durationMinutes());
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(window) > 0) {
+            throw new IllegalArgumentException("Duration must be positive and fit in the search window");
+        }
+        int capacity = search.capacity() == null ? 0 : search.capacity();
+
+        List<Venue> venues = venueRepository.findByIsAvailableTrueAndCapacityGreaterThanEqualOrderByCapacity(capacity);
+        Map<Long, List<TimeSlotDto>> freeSlots = venueCalendar.freeSlots(
+                venues.stream().map(Venue::getId).toList(),
+                search.startTime(),
+                search.endTime()
+        );
+
+        List<VenueAvailabilityDto> available = new ArrayList<>();
+        for (Venue venue : venues) {
+            List<TimeSlotDto> longEnough = freeSlots.get(venue.getId()).stream()
+                    .filter(slot -> Duration.between(slot.startTime(), slot.endTime()).compareTo(duration) >= 0)
+                    .toList();
+            if (!longEnough.isEmpty()) {
+                available.add(new VenueAvailabilityDto(convertToVenueDto(venue), longEnough));
+            }
+        }
+        return available;
+    }
+
+    /*
+    The venue row is locked before the overlap check, so concurrent bookings of one venue run
+    check-then-insert one at a time while other venues are unaffected. The lock is held until commit.
+     */
     @Transactional
     public BookingResponseDto createBooking(BookingRequestDto bookingRequest, int userId) {
-        Venue venue = venueRepository.findById(bookingRequest.venueId())
+        validateInterval(bookingRequest.startTime(), bookingRequest.endTime());
+
+        Venue venue = venueRepository.findByIdForUpdate(bookingRequest.venueId())
                 .orElseThrow(() -> new EntityNotFoundException("Venue not found"));
 
         if (!venue.getIsAvailable()) {
+            countConflict("venue_unavailable");
             throw new IllegalStateException("Venue is not available for booking");
         }
 
-        if (!checkAvailability(new AvailabilityCheckDto(
+        // Checked against the database, the calendar may not have seen a booking that just committed
+        if (bookingDao.existsConflictingBooking(
                 bookingRequest.venueId(),
                 bookingRequest.startTime(),
                 bookingRequest.endTime()
-        ))) {
+        )) {
+            countConflict("overlap");
             throw new IllegalStateException("Venue is already booked for the selected time");
         }
 
@@ -77,22 +160,101 @@ public class VenueBookingService {
                 .build();
 
         Booking savedBooking = bookingDao.save(booking);
+        eventPublisher.publishEvent(new BookingChangedEvent(toInterval(savedBooking), false));
         return convertToBookingResponseDto(savedBooking);
     }
 
+    // Booking and venue columns come back in one query, most recent first
+    @Transactional(readOnly = true)
     public List<BookingResponseDto> getUserBookings(int userId) {
-        return bookingDao.findByUserId(Math.toIntExact(userId)).stream()
-                .map(this::convertToBookingResponseDto)
+        return bookingDao.findViewsByUserId(userId).stream()
+                .map(BookingView::toResponseDto)
                 .collect(Collectors.toList());
     }
 
+    /*
+    Keyset pages of one user's bookings: upcoming ones (not ended yet) soonest first, past ones most recent first.
+    Each page is a single query on idx_bookings_user_time that continues after the (startTime, id)
+    of the previous page's last row; one extra row is read to know whether another page follows.
+    The cursor is that key as base64 JSON, valid only for the same period.
+     */
+    @Transactional(readOnly = true)
+    public BookingPageDto getUserBookingPage(int userId, BookingPeriod period, BookingStatus status,
+                                             int size, String cursor) {
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        BookingCursor after = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor, period);
+        LocalDateTime startTime = after == null ? null : after.startTime();
+        Long id = after == null ? null : after.id();
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<BookingView> rows = period == BookingPeriod.UPCOMING
+                ? bookingDao.findUpcomingViews(userId, LocalDateTime.now(), status, startTime, id, limit)
+                : bookingDao.findPastViews(userId, LocalDateTime.now(), status, startTime, id, limit);
+
+        List<BookingView> page = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            BookingView last = page.get(page.size() - 1);
+            nextCursor = encodeCursor(new BookingCursor(period, last.startTime(), last.id()));
+        }
+        return new BookingPageDto(page.stream().map(BookingView::toResponseDto).toList(), nextCursor);
+    }
+
+    private record BookingCursor(BookingPeriod period, LocalDateTime startTime, Long id) {}
+
+    private String encodeCursor(BookingCursor cursor) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(cursor));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private BookingCursor decodeCursor(String cursor, BookingPeriod period) {
+        BookingCursor decoded;
+        try {
+            decoded = objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), BookingCursor.class);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+        if (decoded.period() != period || decoded.startTime() == null || decoded.id() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor does not match the requested period");
+        }
+        return decoded;
+    }
+
     @Transactional
     public void cancelBooking(Long bookingId, int userId) {
         Booking booking = bookingDao.findById(bookingId)
-                .orElseThrow();
+                .orElseThrow(() -> new EntityNotFoundException("Booking not found"));
+
+        if (!booking.getUser().getId().equals(userId)) {
+            throw new IllegalStateException("You can only cancel your own bookings");
+        }
+        if (booking.getStatus() == BookingStatus.CANCELLED) {
+            return;
+        }
 
-        throw new IllegalStateException("You can only cancel your own bookings");
+        booking.setStatus(BookingStatus.CANCELLED);
+        bookingDao.save(booking);
+        eventPublisher.publishEvent(new BookingChangedEvent(toInterval(booking), true));
+    }
+
+    private void countConflict(String reason) {
+        meterRegistry.counter("coda.bookings.conflicts", "reason", reason).increment();
+    }
 
+    private static BookingInterval toInterval(Booking booking) {
+        return new BookingInterval(booking.getId(), booking.getVenue().getId(), booking.getStartTime(), booking.getEndTime());
+    }
+
+    private static void validateInterval(LocalDateTime startTime, LocalDateTime endTime) {
+        if (startTime == null || endTime == null) {
+            throw new IllegalArgumentException("Start and end time are required");
+        }
+        if (!startTime.isBefore(endTime)) {
+            throw new IllegalArgumentException("Start time must be before end time");
+        }
     }
 
     private VenueDto convertToVenueDto(Venue venue) {
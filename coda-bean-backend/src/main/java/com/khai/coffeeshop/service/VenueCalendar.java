@@ -0,0 +1,291 @@
+package com.khai.coffeeshop.service;
+
+import com.khai.coffeeshop.dao.BookingDao;
+import com.khai.coffeeshop.dto.BookingInterval;
+import com.khai.coffeeshop.dto.TimeSlotDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/*
+In-memory calendar of the active (not cancelled) bookings of every venue, so availability checks
+and free-slot queries are answered with a binary search instead of a database round trip.
+Each venue has an immutable schedule sorted by start time. Reads take no lock, every committed
+booking change on this node and every reload publishes a fresh map of schedules in one step.
+Changes made on another node are only seen when the whole calendar is reloaded from the database
+every app.venues.calendar-sync-ms, so until then availability answers can miss them. Bookings that
+ended before the last load are not kept, questions about that past go to the database. The database
+stays the source of truth for createBooking, which re-checks under the venue lock.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VenueCalendar {
+    private final BookingDao bookingDao;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Lock writeLock = new ReentrantLock();
+
+    // Null until loaded. Replaced as a whole under writeLock, the maps are never modified once published
+    private volatile Loaded loaded;
+
+    // Nothing before horizon is held in memory
+    private record Loaded(LocalDateTime horizon, Map<Long, Schedule> schedules) {}
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        int bookings = reload();
+        log.info("Venue calendar loaded {} bookings for {} venues", bookings, loaded.schedules().size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.venues.calendar-sync-ms:30000}",
+            initialDelayString = "${app.venues.calendar-sync-ms:30000}")
+    public void sync() {
+        reload();
+    }
+
+    // Booking changes committing meanwhile wait for the lock and are applied on top, they are idempotent
+    private int reload() {
+        writeLock.lock();
+        try {
+            LocalDateTime loadedFrom = LocalDateTime.now().withNano(0);
+            List<BookingInterval> intervals = readOnlyTransaction().execute(status ->
+                    bookingDao.findActiveIntervalsEndingAfter(loadedFrom));
+
+            Map<Long, Schedule> schedules = new HashMap<>();
+            intervals.stream()
+                    .collect(Collectors.groupingBy(BookingInterval::venueId))
+                    .forEach((venueId, venueIntervals) -> schedules.put(venueId, Schedule.of(venueIntervals)));
+            loaded = new Loaded(loadedFrom, schedules);
+            return intervals.size();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        writeLock.lock();
+        try {
+            // Not loaded yet, the load will read this change from the database
+            Loaded current = loaded;
+            if (current == null) {
+                return;
+            }
+            BookingInterval interval = event.interval();
+            Map<Long, Schedule> schedules = new HashMap<>(current.schedules());
+            Schedule schedule = schedules.getOrDefault(interval.venueId(), Schedule.EMPTY);
+            Schedule updated = event.cancelled() ? schedule.without(interval.bookingId()) : schedule.with(interval);
+            if (updated.isEmpty()) {
+                schedules.remove(interval.venueId());
+            } else {
+                schedules.put(interval.venueId(), updated);
+            }
+            loaded = new Loaded(current.horizon(), schedules);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public boolean isFree(Long venueId, LocalDateTime startTime, LocalDateTime endTime) {
+        return scheduleCovering(venueId, startTime, endTime).isFree(epochSecond(startTime), epochSecond(endTime));
+    }
+
+    public List<TimeSlotDto> freeSlots(Long venueId, LocalDateTime from, LocalDateTime to) {
+        return scheduleCovering(venueId, from, to).freeSlots(epochSecond(from), epochSecond(to));
+    }
+
+    // Same as freeSlots for every venue, with at most one query for all of them when the window predates the calendar
+    public Map<Long, List<TimeSlotDto>> freeSlots(Collection<Long> venueIds, LocalDateTime from, LocalDateTime to) {
+        Map<Long, Schedule> venueSchedules;
+        Loaded current = loaded;
+        if (current != null && !from.isBefore(current.horizon())) {
+            venueSchedules = current.schedules();
+        } else if (venueIds.isEmpty()) {
+            venueSchedules = Map.of();
+        } else {
+            venueSchedules = new HashMap<>();
+            readOnlyTransaction().execute(status -> bookingDao.findActiveIntervalsForVenues(venueIds, from, to)).stream()
+                    .collect(Collectors.groupingBy(BookingInterval::venueId))
+                    .forEach((venueId, venueIntervals) -> venueSchedules.put(venueId, Schedule.of(venueIntervals)));
+        }
+
+        long start = epochSecond(from);
+        long end = epochSecond(to);
+        Map<Long, List<TimeSlotDto>> freeSlots = new LinkedHashMap<>();
+        for (Long venueId : venueIds) {
+            freeSlots.put(venueId, venueSchedules.getOrDefault(venueId, Schedule.EMPTY).freeSlots(start, end));
+        }
+        return freeSlots;
+    }
+
+    private Schedule scheduleCovering(Long venueId, LocalDateTime from, LocalDateTime to) {
+        Loaded current = loaded;
+        if (current != null && !from.isBefore(current.horizon())) {
+            return current.schedules().getOrDefault(venueId, Schedule.EMPTY);
+        }
+        return Schedule.of(readOnlyTransaction().execute(status ->
+                bookingDao.findActiveIntervals(venueId, from, to)));
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transaction.setReadOnly(true);
+        return transaction;
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime fromEpochSecond(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    /*
+    Parallel arrays sorted by start. maxEnds[i] is the latest end among entries 0..i, which keeps
+    the binary searches correct even if legacy data holds overlapping bookings.
+     */
+    private record Schedule(long[] bookingIds, long[] starts, long[] ends, long[] maxEnds) {
+        static final Schedule EMPTY = new Schedule(new long[0], new long[0], new long[0], new long[0]);
+
+        static Schedule of(List<BookingInterval> intervals) {
+            List<BookingInterval> sorted = new ArrayList<>(intervals);
+            sorted.sort(Comparator.comparing(BookingInterval::startTime));
+            long[] bookingIds = new long[sorted.size()];
+            long[] starts = new long[sorted.size()];
+            long[] ends = new long[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                BookingInterval interval = sorted.get(i);
+                bookingIds[i] = interval.bookingId();
+                starts[i] = epochSecond(interval.startTime());
+                ends[i] = epochSecond(interval.endTime());
+            }
+            return new Schedule(bookingIds, starts, ends, runningMax(ends));
+        }
+
+        boolean isEmpty() {
+            return bookingIds.length == 0;
+        }
+
+        // Half-open: something overlaps [start, end) if it starts before end and ends after start
+        boolean isFree(long start, long end) {
+            int before = firstStartingAtOrAfter(end);
+            return before == 0 || maxEnds[before - 1] <= start;
+        }
+
+        List<TimeSlotDto> freeSlots(long from, long to) {
+            List<TimeSlotDto> slots = new ArrayList<>();
+            long cursor = from;
+            int until = firstStartingAtOrAfter(to);
+            for (int i = firstEndingAfter(from); i < until; i++) {
+                if (starts[i] > cursor) {
+                    slots.add(new TimeSlotDto(fromEpochSecond(cursor), fromEpochSecond(starts[i])));
+                }
+                cursor = Math.max(cursor, ends[i]);
+            }
+            if (cursor < to) {
+                slots.add(new TimeSlotDto(fromEpochSecond(cursor), fromEpochSecond(to)));
+            }
+            return slots;
+        }
+
+        Schedule with(BookingInterval interval) {
+            for (long bookingId : bookingIds) {
+                if (bookingId == interval.bookingId()) {
+                    return this;
+                }
+            }
+            long start = epochSecond(interval.startTime());
+            int position = firstStartingAtOrAfter(start);
+            long[] newIds = insert(bookingIds, position, interval.bookingId());
+            long[] newStarts = insert(starts, position, start);
+            long[] newEnds = insert(ends, position, epochSecond(interval.endTime()));
+            return new Schedule(newIds, newStarts, newEnds, runningMax(newEnds));
+        }
+
+        Schedule without(long bookingId) {
+            for (int i = 0; i < bookingIds.length; i++) {
+                if (bookingIds[i] == bookingId) {
+                    long[] newEnds = remove(ends, i);
+                    return new Schedule(remove(bookingIds, i), remove(starts, i), newEnds, runningMax(newEnds));
+                }
+            }
+            return this;
+        }
+
+        private int firstStartingAtOrAfter(long time) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle] < time) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private int firstEndingAfter(long time) {
+            int low = 0;
+            int high = maxEnds.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (maxEnds[middle] <= time) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private static long[] runningMax(long[] ends) {
+            long[] maxEnds = new long[ends.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < ends.length; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnds[i] = max;
+            }
+            return maxEnds;
+        }
+
+        private static long[] insert(long[] values, int position, long value) {
+            long[] result = Arrays.copyOf(values, values.length + 1);
+            System.arraycopy(values, position, result, position + 1, values.length - position);
+            result[position] = value;
+            return result;
+        }
+
+        private static long[] remove(long[] values, int position) {
+            long[] result = new long[values.length - 1];
+            System.arraycopy(values, 0, result, 0, position);
+            System.arraycopy(values, position + 1, result, position, values.length - position - 1);
+            return result;
+        }
+    }
+}
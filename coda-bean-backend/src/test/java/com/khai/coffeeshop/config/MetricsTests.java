@@ -0,0 +1,39 @@
+package com.khai.coffeeshop.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricsTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void scrapeCoversRequestsServicesRepositoriesPoolAndCaches() throws Exception {
+        mockMvc.perform(get("/api/menu")).andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .containsPattern("http_server_requests_seconds_bucket\\{.*uri=\"/api/menu\".*le=")
+                .containsPattern("coda_service_seconds_bucket\\{.*class=\"com.khai.coffeeshop.service.MenuService\".*le=")
+                .containsPattern("spring_data_repository_invocations_seconds_bucket\\{.*repository=\"MenuCategoryDao\"")
+                .contains("hikaricp_connections_active")
+                .contains("hibernate_second_level_cache_requests")
+                .containsPattern("cache_gets_total\\{.*cache=\"principals-by-username\"")
+                .containsPattern("cache_gets_total\\{.*cache=\"principals-by-id\"")
+                .containsPattern("cache_gets_total\\{.*cache=\"images\"");
+    }
+}
@@ -0,0 +1,72 @@
+package com.khai.coffeeshop.config;
+
+import com.khai.coffeeshop.dto.MenuSnapshot;
+import com.khai.coffeeshop.service.MenuCache;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=true"
+)
+class VirtualThreadsTests {
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private ThreadPoolTaskExecutor passwordTaskExecutor;
+
+    @Autowired
+    private MenuCache menuCache;
+
+    @Test
+    void requestsAndScheduledTasksRunOnVirtualThreads() throws Exception {
+        TomcatWebServer server = (TomcatWebServer) context.getWebServer();
+        assertThat(server.getTomcat().getConnector().getProtocolHandler().getExecutor())
+                .isInstanceOf(VirtualThreadExecutor.class);
+
+        CompletableFuture<Boolean> scheduledOnVirtual = new CompletableFuture<>();
+        taskScheduler.schedule(() -> scheduledOnVirtual.complete(Thread.currentThread().isVirtual()), Instant.now());
+        assertThat(scheduledOnVirtual.get(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void cpuBoundPoolsKeepPlatformThreads() throws Exception {
+        assertThat(passwordTaskExecutor.submit(() -> Thread.currentThread().isVirtual()).get()).isFalse();
+    }
+
+    @Test
+    void concurrentFirstReadsShareOneSnapshot() throws Exception {
+        List<Future<MenuSnapshot>> reads = new ArrayList<>();
+        try (ExecutorService readers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 200; i++) {
+                reads.add(readers.submit(menuCache::current));
+            }
+        }
+
+        MenuSnapshot first = reads.get(0).get();
+        for (Future<MenuSnapshot> read : reads) {
+            assertThat(read.get()).isSameAs(first);
+        }
+    }
+}
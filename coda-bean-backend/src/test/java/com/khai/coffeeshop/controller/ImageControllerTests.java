@@ -0,0 +1,98 @@
+package com.khai.coffeeshop.controller;
+
+import com.khai.coffeeshop.enumTypes.ImageVariant;
+import com.khai.coffeeshop.service.ImageService;
+import com.khai.coffeeshop.service.ImageVariantService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ImageControllerTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ImageService imageService;
+
+    // Variants are never generated, every upload stays in the "not resized yet" state
+    @MockitoBean
+    private ImageVariantService imageVariantService;
+
+    private String imageName;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random();
+        for (int x = 0; x < 64; x++) {
+            for (int y = 0; y < 64; y++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", jpeg);
+        imageName = imageService.storeImage(new ByteArrayInputStream(jpeg.toByteArray()), jpeg.size());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(variantPath(ImageVariant.THUMB));
+        imageService.releaseImage(imageName);
+    }
+
+    @Test
+    void originalServedForAMissingVariantIsRevalidated() throws Exception {
+        MockHttpServletResponse thumb = fetch("?size=thumb");
+        assertThat(thumb.getStatus()).isEqualTo(200);
+        assertThat(thumb.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-cache");
+
+        MockHttpServletResponse original = fetch("");
+        assertThat(original.getHeader(HttpHeaders.CACHE_CONTROL)).contains("immutable");
+        assertThat(thumb.getContentAsByteArray()).isEqualTo(original.getContentAsByteArray());
+        assertThat(thumb.getHeader(HttpHeaders.ETAG)).isEqualTo(original.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void generatedVariantIsImmutable() throws Exception {
+        String fallbackEtag = fetch("?size=thumb").getHeader(HttpHeaders.ETAG);
+
+        Files.copy(Paths.get(System.getProperty("user.dir"), "uploads", "images", imageName),
+                variantPath(ImageVariant.THUMB));
+
+        MockHttpServletResponse thumb = fetch("?size=thumb");
+        assertThat(thumb.getHeader(HttpHeaders.CACHE_CONTROL)).contains("immutable");
+        assertThat(thumb.getHeader(HttpHeaders.ETAG)).isNotEqualTo(fallbackEtag);
+    }
+
+    private MockHttpServletResponse fetch(String query) throws Exception {
+        return mockMvc.perform(get("/api/images/product-image/" + imageName + query))
+                .andReturn()
+                .getResponse();
+    }
+
+    private Path variantPath(ImageVariant variant) {
+        return Paths.get(System.getProperty("user.dir"), "uploads", "images", variant.fileName(imageName));
+    }
+}
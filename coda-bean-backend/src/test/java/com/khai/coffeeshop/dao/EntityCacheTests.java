@@ -0,0 +1,119 @@
+package com.khai.coffeeshop.dao;
+
+import com.khai.coffeeshop.entity.Product;
+import com.khai.coffeeshop.entity.Role;
+import com.khai.coffeeshop.service.EntityCacheStatistics;
+import com.khai.coffeeshop.service.SuggestService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Not @DataJpaTest: every repository call has to run in its own session for the second-level cache to matter
+@SpringBootTest
+class EntityCacheTests {
+    @Autowired
+    private ProductDao productDao;
+
+    @Autowired
+    private RoleDao roleDao;
+
+    @Autowired
+    private EntityCacheStatistics entityCacheStatistics;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductVersionDao productVersionDao;
+
+    @Autowired
+    private SuggestService suggestService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productDao.deleteAllInBatch();
+    }
+
+    @Test
+    void repeatedProductLookupsDoNotTouchTheDatabase() {
+        Integer id = productDao.save(new Product("Beans", "House Blend", "Roasted", 12.5)).getId();
+        productDao.findProductById(id);
+        statistics.clear();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(productDao.findProductById(id)).get().extracting(Product::getProductName).isEqualTo("House Blend");
+        }
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(5);
+    }
+
+    @Test
+    void updatesThroughHibernateReplaceTheCachedEntry() {
+        Product product = productDao.save(new Product("Beans", "House Blend", "Roasted", 12.5));
+        productDao.findProductById(product.getId());
+
+        product.setPrice(14);
+        productDao.save(product);
+
+        assertThat(productDao.findProductById(product.getId())).get().extracting(Product::getPrice).isEqualTo(14.0);
+    }
+
+    @Test
+    void productChangedOnAnotherNodeIsEvictedByTheVersionPoll() {
+        Integer id = productDao.save(new Product("Beans", "House Blend", "Roasted", 12.5)).getId();
+        suggestService.sync();
+        productDao.findProductById(id);
+
+        // Another node's write, this node's cache never hears about it
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE products SET product_name = ? WHERE product_id = ?", "Decaf Blend", id);
+            productVersionDao.increment();
+        });
+        assertThat(productDao.findProductById(id)).get().extracting(Product::getProductName).isEqualTo("House Blend");
+
+        suggestService.sync();
+
+        assertThat(productDao.findProductById(id)).get().extracting(Product::getProductName).isEqualTo("Decaf Blend");
+    }
+
+    @Test
+    void roleByNameIsServedFromTheQueryCache() {
+        Role role = new Role();
+        role.setRoleName("CACHE_TEST");
+        roleDao.save(role);
+        roleDao.findByRoleName("CACHE_TEST");
+        statistics.clear();
+
+        assertThat(roleDao.findByRoleName("CACHE_TEST")).isPresent();
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(entityCacheStatistics.stats().regions())
+                .extracting(EntityCacheStatistics.RegionStats::region)
+                .contains("products", "roles", "default-query-results-region");
+    }
+}
@@ -0,0 +1,119 @@
+package com.khai.coffeeshop.dao;
+
+import com.khai.coffeeshop.dto.MenuCategoryDto;
+import com.khai.coffeeshop.dto.MenuItemDto;
+import com.khai.coffeeshop.entity.MenuCategory;
+import com.khai.coffeeshop.entity.MenuItem;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class MenuCategoryDaoTests {
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private MenuCategoryDao menuCategoryDao;
+
+    @Autowired
+    private MenuItemDao menuItemDao;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
+    @Test
+    void fullMenuIsLoadedInTwoStatementsRegardlessOfSize() {
+        seedMenu(2, 3);
+        assertThat(statementsToLoadFullMenu()).isEqualTo(2);
+
+        seedMenu(10, 8);
+        assertThat(statementsToLoadFullMenu()).isEqualTo(2);
+    }
+
+    @Test
+    void fullMenuKeepsItemsAndTags() {
+        seedMenu(3, 4);
+        entityManager.clear();
+
+        List<MenuCategoryDto> menu = menuCategoryDao.findAllWithItemsAndTags().stream()
+                .map(MenuCategoryDto::fromEntity)
+                .toList();
+
+        assertThat(menu).hasSize(3);
+        assertThat(menu).allSatisfy(category -> {
+            assertThat(category.items()).hasSize(4);
+            assertThat(category.items()).allSatisfy(item -> assertThat(item.tags()).hasSize(2));
+        });
+    }
+
+    @Test
+    void itemQueriesFetchCategoryAndTagsUpFront() {
+        MenuCategory category = seedMenu(4, 5).get(0);
+        entityManager.clear();
+        statistics.clear();
+
+        menuItemDao.findByCategoryId(category.getId()).forEach(item -> {
+            MenuItemDto.fromEntity(item);
+            item.getCategory().getName();
+        });
+        menuItemDao.findByAvailableTrue().forEach(item -> {
+            MenuItemDto.fromEntity(item);
+            item.getCategory().getName();
+        });
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    private long statementsToLoadFullMenu() {
+        entityManager.clear();
+        statistics.clear();
+
+        menuCategoryDao.findAllWithItemsAndTags().forEach(MenuCategoryDto::fromEntity);
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<MenuCategory> seedMenu(int categories, int itemsPerCategory) {
+        List<MenuCategory> saved = new ArrayList<>();
+        for (int c = 0; c < categories; c++) {
+            MenuCategory category = new MenuCategory();
+            category.setName("Category " + c);
+            category.setDescription("Description " + c);
+            entityManager.persist(category);
+
+            for (int i = 0; i < itemsPerCategory; i++) {
+                MenuItem item = new MenuItem();
+                item.setName("Item " + c + "-" + i);
+                item.setDescription("Item description");
+                item.setPrice(new BigDecimal("4.50"));
+                item.setTags(new HashSet<>(Set.of("coffee", "tag" + i)));
+                item.setCategory(category);
+                category.getItems().add(item);
+                entityManager.persist(item);
+            }
+            saved.add(category);
+        }
+        entityManager.flush();
+        return saved;
+    }
+}
@@ -0,0 +1,60 @@
+package com.khai.coffeeshop.search;
+
+import com.khai.coffeeshop.dto.MenuCategoryDto;
+import com.khai.coffeeshop.dto.MenuItemDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MenuSearchIndexTests {
+    private final MenuSearchIndex index = MenuSearchIndex.build(List.of(
+            new MenuCategoryDto(1L, "Coffee", null, null, List.of(
+                    item(1L, "Honey Lavender Latte", "Espresso infused with lavender syrup and honey.", "coffee", "hot"),
+                    item(2L, "Cold Brew Reserve", "24-hour steeped cold brew with chocolatey notes.", "coffee", "cold"),
+                    item(3L, "Velvet Mocha", "Espresso, dark chocolate and steamed milk.", "coffee", "hot")
+            )),
+            new MenuCategoryDto(2L, "Tea", null, null, List.of(
+                    item(4L, "Chai Spice Latte", "Bold spiced chai with frothy steamed milk.", "tea", "hot"),
+                    item(5L, "Mushroom & Truffle Toast", "Sautéed wild mushrooms on rustic bread.", "meal")
+            ))
+    ));
+
+    @Test
+    void matchesWordPrefixesAcrossNameDescriptionAndTags() {
+        assertThat(ids(index.search("lat"))).containsExactlyInAnyOrder(1L, 4L);
+        assertThat(ids(index.search("choc"))).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(ids(index.search("cold"))).containsExactly(2L);
+        assertThat(ids(index.search("SAUTEED"))).containsExactly(5L);
+    }
+
+    @Test
+    void requiresEveryTokenToMatch() {
+        assertThat(ids(index.search("steamed milk chai"))).containsExactly(4L);
+        assertThat(ids(index.search("latte cold"))).isEmpty();
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        assertThat(ids(index.search("mocha espresso"))).containsExactly(3L);
+        assertThat(ids(index.search("espresso"))).containsExactly(1L, 3L);
+        assertThat(ids(index.search("chocolate")).get(0)).isEqualTo(3L);
+        assertThat(ids(index.search("honey")).get(0)).isEqualTo(1L);
+    }
+
+    @Test
+    void blankQueryReturnsWholeMenu() {
+        assertThat(index.search(" ")).hasSize(5);
+    }
+
+    private static MenuItemDto item(Long id, String name, String description, String... tags) {
+        return new MenuItemDto(id, name, description, BigDecimal.ONE, true, null, 5, Set.of(tags));
+    }
+
+    private static List<Long> ids(List<MenuItemDto> items) {
+        return items.stream().map(MenuItemDto::id).toList();
+    }
+}
@@ -0,0 +1,83 @@
+package com.khai.coffeeshop.search;
+
+import com.khai.coffeeshop.dto.MenuCategoryDto;
+import com.khai.coffeeshop.dto.MenuItemDto;
+import com.khai.coffeeshop.dto.ProductDto;
+import com.khai.coffeeshop.dto.SuggestionDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestIndexTests {
+    private final SuggestIndex index = SuggestIndex.build(
+            List.of(new MenuCategoryDto(1L, "Signature Coffee", null, null, List.of(
+                    item(1L, "Honey Lavender Latte", "Espresso infused with lavender syrup.", "coffee", "hot"),
+                    item(2L, "Tiramisu Cappuccino", "Espresso with mascarpone foam.", "coffee", "hot"),
+                    item(3L, "Chai Spice Latte", "Bold spiced chai with steamed milk.", "tea", "hot"),
+                    item(4L, "Orange Vanilla Iced Latte", "Espresso, orange zest and vanilla cold foam.", "coffee", "cold")
+            ))),
+            List.of(
+                    new ProductDto(1, "Mugs", "Latte Mug", "Wide ceramic mug for latte art.", 14.0, null),
+                    new ProductDto(2, "Brewers", "French Press", "Classic glass press.", 30.0, null)
+            )
+    );
+
+    @Test
+    void toleratesTypos() {
+        assertThat(names(index.suggest("lattee", 10))).contains("Honey Lavender Latte", "Latte Mug");
+        assertThat(names(index.suggest("cappucino", 10))).containsExactly("Tiramisu Cappuccino");
+        assertThat(names(index.suggest("frnech press", 10)).get(0)).isEqualTo("French Press");
+    }
+
+    @Test
+    void toleratesTranspositionInsideAWord() {
+        // Swapping two middle letters breaks four trigrams, not three
+        assertThat(names(index.suggest("vanlila", 10))).containsExactly("Orange Vanilla Iced Latte");
+    }
+
+    @Test
+    void completesTheLastToken() {
+        assertThat(names(index.suggest("iced lat", 10)).get(0)).isEqualTo("Orange Vanilla Iced Latte");
+        assertThat(names(index.suggest("fren", 10))).containsExactly("French Press");
+    }
+
+    @Test
+    void searchesMenuAndProductsTogether() {
+        List<SuggestionDto> results = index.suggest("latte", 10);
+        assertThat(results).extracting(SuggestionDto::type)
+                .contains(SuggestionDto.MENU_ITEM, SuggestionDto.PRODUCT);
+        assertThat(results.get(0).name()).isEqualTo("Latte Mug");
+    }
+
+    @Test
+    void boostsTagMatches() {
+        assertThat(names(index.suggest("cold", 10)).get(0)).isEqualTo("Orange Vanilla Iced Latte");
+        assertThat(names(index.suggest("tea latte", 10)).get(0)).isEqualTo("Chai Spice Latte");
+    }
+
+    @Test
+    void respectsLimit() {
+        assertThat(index.suggest("espresso", 2)).hasSize(2);
+        assertThat(index.suggest("xyz", 10)).isEmpty();
+    }
+
+    @Test
+    void editDistanceStopsPastTheBound() {
+        assertThat(SuggestIndex.editDistance("latte", "latte", 1)).isZero();
+        assertThat(SuggestIndex.editDistance("lattee", "latte", 1)).isEqualTo(1);
+        assertThat(SuggestIndex.editDistance("frnech", "french", 1)).isEqualTo(1);
+        assertThat(SuggestIndex.editDistance("mocha", "matcha", 1)).isEqualTo(2);
+    }
+
+    private static MenuItemDto item(Long id, String name, String description, String... tags) {
+        return new MenuItemDto(id, name, description, BigDecimal.ONE, true, null, 5, Set.of(tags));
+    }
+
+    private static List<String> names(List<SuggestionDto> suggestions) {
+        return suggestions.stream().map(SuggestionDto::name).toList();
+    }
+}
@@ -0,0 +1,103 @@
+package com.khai.coffeeshop.security;
+
+import com.khai.coffeeshop.dao.RoleDao;
+import com.khai.coffeeshop.dao.UserDao;
+import com.khai.coffeeshop.entity.Customer;
+import com.khai.coffeeshop.entity.Role;
+import com.khai.coffeeshop.service.AuthService;
+import com.khai.coffeeshop.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class PrincipalCacheTests {
+    private static final String USERNAME = "principal-cache-tests";
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserDao userDao;
+
+    @Autowired
+    private RoleDao roleDao;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Role role;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        role = new Role();
+        role.setRoleName("ROLE_PRINCIPAL_CACHE");
+        role = roleDao.save(role);
+
+        customer = new Customer();
+        customer.setUsername(USERNAME);
+        customer.setPassword("secret");
+        customer.setRole(role);
+        customer = userDao.save(customer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (userDao.existsById(customer.getId())) {
+            authService.deleteUser(USERNAME);
+        }
+        roleDao.delete(role);
+    }
+
+    @Test
+    void repeatedLookupsAreServedFromMemory() {
+        userDetailsService.loadUserByUsername(USERNAME);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        for (int i = 0; i < 5; i++) {
+            SecurityUser user = (SecurityUser) userDetailsService.loadUserByUsername(USERNAME);
+            assertThat(user.getAuthorities()).extracting("authority").containsExactly("ROLE_PRINCIPAL_CACHE");
+            assertThat(userService.getUserById(customer.getId()).getUsername()).isEqualTo(USERNAME);
+        }
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void profileChangesAreVisibleRightAway() {
+        assertThat(userService.getUserById(customer.getId()).getImageUrl()).isNull();
+
+        userService.updateUserProfileUrl(USERNAME, "avatar.png");
+
+        assertThat(userService.getUserById(customer.getId()).getImageUrl()).isEqualTo("avatar.png");
+        assertThat(userService.getUserByUsername(USERNAME).getImageUrl()).isEqualTo("avatar.png");
+    }
+
+    @Test
+    void deletedUsersCanNoLongerAuthenticate() {
+        userDetailsService.loadUserByUsername(USERNAME);
+
+        authService.deleteUser(USERNAME);
+
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername(USERNAME))
+                .isInstanceOf(UsernameNotFoundException.class);
+        assertThat(userService.getUserById(customer.getId())).isNull();
+    }
+}
@@ -0,0 +1,146 @@
+package com.khai.coffeeshop.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.khai.coffeeshop.dao.UserDao;
+import com.khai.coffeeshop.dto.TokenResponseDto;
+import com.khai.coffeeshop.entity.Customer;
+import com.khai.coffeeshop.service.AuthService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TokenAuthenticationTests {
+    private static final String USERNAME = "token-tests";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserDao userDao;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        Customer customer = new Customer();
+        customer.setUsername(USERNAME);
+        customer.setPassword(passwordEncoder.encode("secret"));
+        userDao.save(customer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        authService.deleteUser(USERNAME);
+    }
+
+    @Test
+    void bearerTokenAuthenticatesWithoutASession() throws Exception {
+        TokenResponseDto tokens = login();
+
+        MvcResult result = mockMvc.perform(get("/api/venues/my-bookings")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.accessToken()))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(result.getRequest().getSession(false)).isNull();
+    }
+
+    @Test
+    void anonymousReadsDoNotCreateASession() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/menu"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(result.getRequest().getSession(false)).isNull();
+    }
+
+    @Test
+    void protectedEndpointsRejectMissingOrTamperedTokens() throws Exception {
+        mockMvc.perform(get("/api/venues/my-bookings"))
+                .andExpect(status().isUnauthorized());
+
+        String token = login().accessToken();
+        String tampered = token.substring(0, token.indexOf('.') - 2) + "xx" + token.substring(token.indexOf('.'));
+        mockMvc.perform(get("/api/venues/my-bookings")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + tampered))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void refreshTokensAreSingleUse() throws Exception {
+        TokenResponseDto tokens = login();
+
+        TokenResponseDto refreshed = refresh(tokens.refreshToken());
+        assertThat(refreshed.accessToken()).isNotEqualTo(tokens.accessToken());
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + tokens.refreshToken() + "\"}"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/venues/my-bookings")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + refreshed.accessToken()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void logoutRevokesBothTokens() throws Exception {
+        TokenResponseDto tokens = login();
+
+        mockMvc.perform(post("/api/auth/logout")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.accessToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + tokens.refreshToken() + "\"}"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/venues/my-bookings")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.accessToken()))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + tokens.refreshToken() + "\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private TokenResponseDto login() throws Exception {
+        MvcResult pending = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + USERNAME + "\",\"password\":\"secret\"}"))
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), TokenResponseDto.class);
+    }
+
+    private TokenResponseDto refresh(String refreshToken) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), TokenResponseDto.class);
+    }
+}
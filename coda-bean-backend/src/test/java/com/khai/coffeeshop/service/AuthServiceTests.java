@@ -0,0 +1,98 @@
+package com.khai.coffeeshop.service;
+
+import com.khai.coffeeshop.dao.UserDao;
+import com.khai.coffeeshop.entity.Customer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "app.security.password.threads=1",
+        // One slot so back-to-back logins never race the worker returning to the queue
+        "app.security.password.queue-capacity=1"
+})
+class AuthServiceTests {
+    private static final String USERNAME = "auth-tests";
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserDao userDao;
+
+    @Autowired
+    private ThreadPoolTaskExecutor passwordTaskExecutor;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = new Customer();
+        customer.setUsername(USERNAME);
+        // Stored before hashes carried an encoder id
+        customer.setPassword(new BCryptPasswordEncoder(4).encode("secret"));
+        customer = userDao.save(customer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        authService.deleteUser(USERNAME);
+    }
+
+    @Test
+    void legacyHashIsUpgradedOnLogin() {
+        authService.login(USERNAME, "secret").join();
+
+        String stored = userDao.findById(customer.getId()).orElseThrow().getPassword();
+        assertThat(stored).startsWith("{bcrypt}$2a$04$");
+
+        // And the new hash still verifies
+        authService.login(USERNAME, "secret").join();
+        assertThat(userDao.findById(customer.getId()).orElseThrow().getPassword()).isEqualTo(stored);
+    }
+
+    @Test
+    void wrongPasswordIsUnauthorized() {
+        assertThatThrownBy(() -> authService.login(USERNAME, "wrong").join())
+                .isInstanceOf(CompletionException.class)
+                .cause()
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED));
+    }
+
+    @Test
+    void saturatedPoolRejectsLogins() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        passwordTaskExecutor.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        started.await();
+        passwordTaskExecutor.execute(() -> { });
+
+        try {
+            assertThatThrownBy(() -> authService.login(USERNAME, "secret"))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.khai.coffeeshop.service;
+
+import com.khai.coffeeshop.dao.MenuCategoryDao;
+import com.khai.coffeeshop.dao.MenuItemDao;
+import com.khai.coffeeshop.dao.ProductDao;
+import com.khai.coffeeshop.dto.ImportReportDto;
+import com.khai.coffeeshop.dto.MenuCategoryDto;
+import com.khai.coffeeshop.enumTypes.CatalogFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@RecordApplicationEvents
+class CatalogTransferServiceTests {
+    @Autowired
+    private CatalogTransferService catalogTransferService;
+
+    @Autowired
+    private MenuService menuService;
+
+    @Autowired
+    private ProductDao productDao;
+
+    @Autowired
+    private MenuItemDao menuItemDao;
+
+    @Autowired
+    private MenuCategoryDao menuCategoryDao;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @AfterEach
+    void tearDown() {
+        productDao.deleteAllInBatch();
+        // Bulk deletes, so the cached category item lists are evicted along with the rows
+        menuItemDao.deleteAllInBatch();
+        menuCategoryDao.deleteAllInBatch();
+    }
+
+    @Test
+    void csvImportSavesValidRowsAndReportsTheRest() throws IOException {
+        String csv = """
+                productName,category,price,description,ignored
+                Moka Pot,Equipment,35.5,Stovetop brewer,x
+                ,Equipment,10,No name,x
+                French Press,Equipment,abc,Bad price,x
+                Grinder,Equipment,80,"Burr grinder, manual",x
+                """;
+
+        ImportReportDto report = catalogTransferService.importProducts(stream(csv), CatalogFormat.CSV);
+
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.failed()).isEqualTo(2);
+        assertThat(report.errors()).extracting(ImportReportDto.RowError::row).containsExactly(2L, 3L);
+        assertThat(productDao.findAll()).extracting(product -> product.getDescription())
+                .containsExactlyInAnyOrder("Stovetop brewer", "Burr grinder, manual");
+    }
+
+    @Test
+    void ndjsonImportAndExportRoundTrip() throws IOException {
+        String ndjson = """
+                {"productName":"Beans 1","category":"Beans","price":12.0,"description":"Light roast"}
+                {"productName":"Beans 2","category":"Beans","price":13.0
+                {"productName":"Beans 3","category":"Beans","price":14.0,"description":"Dark roast"}
+                """;
+
+        ImportReportDto report = catalogTransferService.importProducts(stream(ndjson), CatalogFormat.NDJSON);
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.errors()).singleElement().extracting(ImportReportDto.RowError::row).isEqualTo(2L);
+
+        String csv = export(CatalogFormat.CSV);
+        assertThat(csv.lines().findFirst()).contains("id,category,productName,description,price,imageUrl");
+        assertThat(csv.lines().filter(line -> line.contains(",Beans,"))).hasSize(2);
+        assertThat(csv).contains("Beans 1").contains("Dark roast");
+    }
+
+    @Test
+    void exportedProductsImportBackUnchanged() throws IOException {
+        String ndjson = """
+                {"productName":"Moka Pot","category":"Equipment","price":35.5,"description":"Stovetop, 6 cups","imageUrl":"moka.jpg"}
+                {"productName":"Beans","category":"Beans","price":12.0,"description":"Light roast"}
+                """;
+        catalogTransferService.importProducts(stream(ndjson), CatalogFormat.NDJSON);
+        String exported = export(CatalogFormat.CSV);
+
+        productDao.deleteAllInBatch();
+        ImportReportDto report = catalogTransferService.importProducts(stream(exported), CatalogFormat.CSV);
+
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(withoutIds(export(CatalogFormat.CSV))).isEqualTo(withoutIds(exported));
+        assertThat(exported).contains("moka.jpg");
+    }
+
+    @Test
+    void unreadableCsvLineStopsTheImportAndSaysWhere() throws IOException {
+        String csv = """
+                productName,category,price
+                Moka Pot,Equipment,35.5
+                "Grinder" manual,Equipment,80
+                French Press,Equipment,30
+                """;
+
+        ImportReportDto report = catalogTransferService.importProducts(stream(csv), CatalogFormat.CSV);
+
+        assertThat(report.imported()).isEqualTo(1);
+        assertThat(report.errors()).singleElement().satisfies(error -> {
+            assertThat(error.row()).isEqualTo(2L);
+            assertThat(error.message()).startsWith("unreadable at line 3, import stopped");
+        });
+        assertThat(productDao.findAll()).extracting(product -> product.getProductName()).containsExactly("Moka Pot");
+    }
+
+    @Test
+    void menuImportRebuildsTheMenuOnce() throws IOException {
+        menuService.createCategory(new MenuCategoryDto(null, "Coffee", "Hot", null, null));
+        events.clear();
+        StringBuilder csv = new StringBuilder("category,name,description,price\n");
+        for (int i = 0; i < 2500; i++) {
+            csv.append("Coffee,Blend ").append(i).append(",House blend,3.00\n");
+        }
+
+        ImportReportDto report = catalogTransferService.importMenuItems(stream(csv.toString()), CatalogFormat.CSV);
+
+        assertThat(report.imported()).isEqualTo(2500);
+        assertThat(events.stream(MenuChangedEvent.class)).hasSize(1);
+        assertThat(menuService.getAllCategoriesWithItems().getFirst().items()).hasSize(2500);
+    }
+
+    @Test
+    void menuItemsReferenceExistingCategoriesByName() throws IOException {
+        MenuCategoryDto coffee = menuService.createCategory(new MenuCategoryDto(null, "Coffee", "Hot", null, null));
+        String csv = """
+                category,name,description,price,tags
+                coffee,Latte,Milky,4.50,hot;milk
+                Tea,Chai,Spiced,4.00,hot
+                """;
+
+        ImportReportDto report = catalogTransferService.importMenuItems(stream(csv), CatalogFormat.CSV);
+
+        assertThat(report.imported()).isEqualTo(1);
+        assertThat(report.errors()).singleElement().extracting(ImportReportDto.RowError::message)
+                .isEqualTo("unknown category: Tea");
+        assertThat(menuService.getAllCategoriesWithItems()).singleElement().satisfies(category -> {
+            assertThat(category.id()).isEqualTo(coffee.id());
+            assertThat(category.items()).singleElement().satisfies(item -> {
+                assertThat(item.name()).isEqualTo("Latte");
+                assertThat(item.tags()).containsExactlyInAnyOrder("hot", "milk");
+            });
+        });
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        catalogTransferService.exportMenuItems(output, CatalogFormat.CSV);
+        assertThat(output.toString(StandardCharsets.UTF_8)).contains("Coffee,Latte,Milky,4.50,true,,,");
+    }
+
+    private String export(CatalogFormat format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        catalogTransferService.exportProducts(output, format);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    // Ids are assigned anew on import
+    private static List<String> withoutIds(String csv) {
+        return csv.lines().map(line -> line.substring(line.indexOf(',') + 1)).toList();
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,62 @@
+package com.khai.coffeeshop.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageCacheTests {
+    @TempDir
+    private Path directory;
+
+    private final ImageCache cache = new ImageCache(1024, 512, false);
+
+    @Test
+    void loadedBytesAreCachedAndServedAsIs() throws IOException {
+        Path file = write("a.jpg", 100);
+
+        ImageCache.CachedImage loaded = load("a", cache.generation(), file, 100);
+
+        assertThat(cache.get("a")).isSameAs(loaded);
+        assertThat(loaded.content().isReadOnly()).isTrue();
+        assertThat(loaded.content().remaining()).isEqualTo(100);
+        assertThat(cache.stats().bytes()).isEqualTo(100);
+    }
+
+    @Test
+    void invalidationDuringALoadWins() throws IOException {
+        Path file = write("a.jpg", 100);
+        long generation = cache.generation();
+
+        // The file is replaced and invalidated while the old bytes are still being read
+        cache.invalidate("a");
+        ImageCache.CachedImage stale = load("a", generation, file, 100);
+
+        assertThat(stale.content().remaining()).isEqualTo(100);
+        assertThat(cache.get("a")).isNull();
+    }
+
+    @Test
+    void oversizedFilesAreServedButNotCached() throws IOException {
+        Path file = write("big.jpg", 600);
+
+        assertThat(load("big", cache.generation(), file, 600).content().remaining()).isEqualTo(600);
+        assertThat(cache.get("big")).isNull();
+    }
+
+    private ImageCache.CachedImage load(String key, long generation, Path file, long size) throws IOException {
+        return cache.load(key, generation, file, size, MediaType.IMAGE_JPEG, 0L, key);
+    }
+
+    private Path write(String name, int size) throws IOException {
+        byte[] content = new byte[size];
+        ByteBuffer.wrap(content).putInt(size);
+        return Files.write(directory.resolve(name), content);
+    }
+}
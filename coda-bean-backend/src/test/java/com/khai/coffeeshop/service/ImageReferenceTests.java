@@ -0,0 +1,143 @@
+package com.khai.coffeeshop.service;
+
+import com.khai.coffeeshop.dao.ImageBlobDao;
+import com.khai.coffeeshop.dao.ProductDao;
+import com.khai.coffeeshop.dao.UserDao;
+import com.khai.coffeeshop.dto.ProductDto;
+import com.khai.coffeeshop.entity.Customer;
+import com.khai.coffeeshop.entity.ImageBlob;
+import com.khai.coffeeshop.entity.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ImageReferenceTests {
+    @Autowired
+    private ImageService imageService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private ImageBlobDao imageBlobDao;
+
+    @Autowired
+    private ProductDao productDao;
+
+    @Autowired
+    private UserDao userDao;
+
+    // No variant files next to the blobs, only the original is stored
+    @MockitoBean
+    private ImageVariantService imageVariantService;
+
+    @Test
+    void uploadIsHandedBackWhenTheOwnerFails() throws IOException {
+        String image = upload();
+
+        assertThatThrownBy(() -> productService.updateProductImage(-1, image))
+                .isInstanceOf(NoSuchElementException.class);
+
+        assertThat(imageBlobDao.findById(hash(image))).isEmpty();
+        assertThat(Files.exists(blobPath(image))).isFalse();
+    }
+
+    @Test
+    void pointingAnotherProductAtAnImageTakesAReference() throws IOException {
+        String image = upload();
+        productService.createNewProduct(new ProductDto(null, "Mugs", "First", "", 10.0, image), true);
+        productService.createNewProduct(new ProductDto(null, "Mugs", "Second", "", 10.0, null), false);
+        Product first = product("First");
+        Product second = product("Second");
+
+        productService.updateProduct(second.getId(),
+                new ProductDto(second.getId(), "Mugs", "Second", "", 10.0, image), false);
+        assertThat(referenceCount(image)).isEqualTo(2);
+
+        productService.deleteProduct(first.getId());
+        assertThat(referenceCount(image)).isEqualTo(1);
+        assertThat(Files.exists(blobPath(image))).isTrue();
+
+        productService.updateProduct(second.getId(),
+                new ProductDto(second.getId(), "Mugs", "Second", "", 10.0, null), false);
+        assertThat(imageBlobDao.findById(hash(image))).isEmpty();
+        assertThat(Files.exists(blobPath(image))).isFalse();
+        productService.deleteProduct(second.getId());
+    }
+
+    @Test
+    void deletingAUserReleasesTheProfileImage() throws IOException {
+        Customer customer = new Customer();
+        customer.setUsername("image-reference-tests");
+        customer.setPassword("{noop}secret");
+        userDao.save(customer);
+
+        String image = upload();
+        productService.createNewProduct(new ProductDto(null, "Mugs", "Shared", "", 10.0, image), true);
+        // The same picture uploaded again as the profile image
+        String profileImage = imageService.storeImage(new ByteArrayInputStream(Files.readAllBytes(blobPath(image))), -1);
+        userService.updateUserProfileUrl(customer.getUsername(), profileImage);
+        assertThat(profileImage).isEqualTo(image);
+        assertThat(referenceCount(image)).isEqualTo(2);
+
+        authService.deleteUser(customer.getUsername());
+
+        assertThat(referenceCount(image)).isEqualTo(1);
+        productService.deleteProduct(product("Shared").getId());
+        assertThat(Files.exists(blobPath(image))).isFalse();
+    }
+
+    private String upload() throws IOException {
+        BufferedImage image = new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random();
+        for (int x = 0; x < 32; x++) {
+            for (int y = 0; y < 32; y++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", jpeg);
+        return imageService.storeImage(new ByteArrayInputStream(jpeg.toByteArray()), jpeg.size());
+    }
+
+    private Product product(String name) {
+        return productDao.findAll().stream()
+                .filter(product -> product.getProductName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private int referenceCount(String image) {
+        return imageBlobDao.findById(hash(image)).map(ImageBlob::getReferenceCount).orElse(0);
+    }
+
+    private static String hash(String image) {
+        return image.substring(0, image.indexOf('.'));
+    }
+
+    private static Path blobPath(String image) {
+        return Paths.get(System.getProperty("user.dir"), "uploads", "images", image);
+    }
+}
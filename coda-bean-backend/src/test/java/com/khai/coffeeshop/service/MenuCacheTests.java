@@ -0,0 +1,93 @@
+package com.khai.coffeeshop.service;
+
+import com.khai.coffeeshop.dao.MenuCategoryDao;
+import com.khai.coffeeshop.dao.MenuVersionDao;
+import com.khai.coffeeshop.dto.MenuCategoryDto;
+import com.khai.coffeeshop.dto.MenuSnapshot;
+import com.khai.coffeeshop.entity.MenuCategory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class MenuCacheTests {
+    @Autowired
+    private MenuCache menuCache;
+
+    @Autowired
+    private MenuService menuService;
+
+    @Autowired
+    private MenuCategoryDao menuCategoryDao;
+
+    @Autowired
+    private MenuVersionDao menuVersionDao;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void versionFollowsThePersistedRow() {
+        long before = menuService.getMenuSnapshot().version();
+
+        menuService.createCategory(new MenuCategoryDto(null, "Pastries", "", "", List.of()));
+
+        assertThat(menuService.getMenuSnapshot().version())
+                .isEqualTo(before + 1)
+                .isEqualTo(menuVersionDao.findCurrent().orElseThrow());
+    }
+
+    @Test
+    void changeMadeOnAnotherNodeIsPickedUpBySync() {
+        MenuSnapshot before = menuCache.current();
+
+        // What another node's MenuService does, without the event this node would have heard
+        MenuCategory category = new MenuCategory();
+        category.setName("Seasonal");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            menuCategoryDao.save(category);
+            menuVersionDao.increment();
+        });
+        assertThat(menuCache.current()).isSameAs(before);
+
+        menuCache.sync();
+
+        MenuSnapshot after = menuCache.current();
+        assertThat(after.version()).isEqualTo(before.version() + 1);
+        assertThat(after.etag()).isNotEqualTo(before.etag());
+        assertThat(after.categories()).extracting(MenuCategoryDto::name).contains("Seasonal");
+
+        menuCache.sync();
+        assertThat(menuCache.current()).isSameAs(after);
+    }
+
+    // Edits load the entity by id, a stale cached copy would be written back over the other node's change
+    @Test
+    void categoryRenamedOnAnotherNodeIsNotServedFromTheEntityCache() {
+        MenuCategoryDto category = menuService.createCategory(new MenuCategoryDto(null, "Cakes", "", "", List.of()));
+        menuCache.current();
+        menuCategoryDao.findById(category.id());
+
+        // Another node's write, this node's second-level cache never hears about it
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE menu_categories SET name = ? WHERE id = ?", "Tarts", category.id());
+            menuVersionDao.increment();
+        });
+        menuCache.sync();
+
+        assertThat(menuCategoryDao.findById(category.id())).get().extracting(MenuCategory::getName).isEqualTo("Tarts");
+        assertThat(menuCache.current().categories()).extracting(MenuCategoryDto::name)
+                .contains("Tarts")
+                .doesNotContain("Cakes");
+    }
+}
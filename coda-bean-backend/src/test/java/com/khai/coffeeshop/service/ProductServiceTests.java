@@ -0,0 +1,124 @@
+package com.khai.coffeeshop.service;
+
+import com.khai.coffeeshop.dao.ProductDao;
+import com.khai.coffeeshop.dto.ProductDto;
+import com.khai.coffeeshop.dto.ProductPageDto;
+import com.khai.coffeeshop.entity.Product;
+import com.khai.coffeeshop.enumTypes.ProductSort;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@RecordApplicationEvents
+class ProductServiceTests {
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductDao productDao;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @AfterEach
+    void tearDown() {
+        productDao.deleteAllInBatch();
+    }
+
+    @Test
+    void bulkImportIsBatched() {
+        List<ProductDto> products = IntStream.range(0, 2500)
+                .mapToObj(i -> new ProductDto(null, "Beans", "Blend " + i, "Roasted", 12.5, null))
+                .toList();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        productService.createProducts(products);
+
+        assertThat(productDao.count()).isEqualTo(2500);
+        // The batched insert is prepared about once per chunk, without batching it's once per row
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(25);
+        assertThat(productDao.findAll()).extracting(Product::getId).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void failedChunkStillAnnouncesTheSavedOnes() {
+        List<ProductDto> products = new ArrayList<>(IntStream.range(0, 1500)
+                .mapToObj(i -> new ProductDto(null, "Beans", "Blend " + i, "Roasted", 12.5, null))
+                .toList());
+        // Points at a stored image that doesn't exist, the second chunk rolls back
+        products.set(1200, new ProductDto(null, "Beans", "Broken", "", 12.5, "0".repeat(64) + ".jpg"));
+        events.clear();
+
+        assertThatThrownBy(() -> productService.createProducts(products)).isInstanceOf(ResponseStatusException.class);
+
+        assertThat(productDao.count()).isEqualTo(1000);
+        assertThat(events.stream(ProductsChangedEvent.class)).hasSize(1);
+    }
+
+    @Test
+    void keysetPagesWalkTheFilteredListInOrder() {
+        List<ProductDto> products = IntStream.range(0, 130)
+                .mapToObj(i -> new ProductDto(null, i % 2 == 0 ? "Beans" : "Gear", "Item " + i, "", 5 + i % 17, null))
+                .toList();
+        productService.createProducts(products);
+
+        List<ProductDto> expected = productDao.findAll().stream()
+                .filter(product -> product.getCategory().equals("Beans") && product.getPrice() >= 8)
+                .sorted(Comparator.comparingDouble(Product::getPrice).reversed()
+                        .thenComparing(Product::getId, Comparator.reverseOrder()))
+                .map(productService::mappToDto)
+                .toList();
+
+        List<ProductDto> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ProductPageDto page = productService.getProductPage(
+                    "Beans", 8.0, null, ProductSort.PRICE, Sort.Direction.DESC, 10, cursor);
+            walked.addAll(page.items());
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(walked).extracting(ProductDto::getId)
+                .containsExactlyElementsOf(expected.stream().map(ProductDto::getId).toList());
+        assertThat(pages).isEqualTo((expected.size() + 9) / 10);
+    }
+
+    @Test
+    void cursorsForAnotherSortAreRejected() {
+        productService.createProducts(IntStream.range(0, 5)
+                .mapToObj(i -> new ProductDto(null, "Beans", "Item " + i, "", 10 + i, null))
+                .toList());
+        String byName = productService.getProductPage(
+                null, null, null, ProductSort.NAME, Sort.Direction.ASC, 2, null).nextCursor();
+
+        assertThatThrownBy(() -> productService.getProductPage(
+                null, null, null, ProductSort.PRICE, Sort.Direction.ASC, 2, byName))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> productService.getProductPage(
+                null, null, null, ProductSort.NAME, Sort.Direction.ASC, 2, "not-a-cursor"))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+}
@@ -0,0 +1,52 @@
+package com.khai.coffeeshop.service;
+
+import com.khai.coffeeshop.dao.ProductDao;
+import com.khai.coffeeshop.dao.ProductVersionDao;
+import com.khai.coffeeshop.dto.SuggestionDto;
+import com.khai.coffeeshop.entity.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SuggestServiceTests {
+    @Autowired
+    private SuggestService suggestService;
+
+    @Autowired
+    private ProductDao productDao;
+
+    @Autowired
+    private ProductVersionDao productVersionDao;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        productDao.deleteAllInBatch();
+    }
+
+    @Test
+    void productAddedOnAnotherNodeIsSuggestedAfterTheNextSync() {
+        suggestService.sync();
+        assertThat(suggestService.suggest("zanzibar", 5)).isEmpty();
+
+        // What another node's ProductService does, without the event this node would have heard
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            productDao.save(new Product("Beans", "Zanzibar Peaberry", "Single origin", 14.0));
+            productVersionDao.increment();
+        });
+        assertThat(suggestService.suggest("zanzibar", 5)).isEmpty();
+
+        suggestService.sync();
+
+        assertThat(suggestService.suggest("zanzibar", 5)).extracting(SuggestionDto::name)
+                .containsExactly("Zanzibar Peaberry");
+    }
+}
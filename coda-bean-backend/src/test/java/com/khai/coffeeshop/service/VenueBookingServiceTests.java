@@ -0,0 +1,358 @@
+package com.khai.coffeeshop.service;
+
+import com.khai.coffeeshop.dao.BookingDao;
+import com.khai.coffeeshop.dao.UserDao;
+import com.khai.coffeeshop.dao.VenueDao;
+import com.khai.coffeeshop.dto.AvailabilityCheckDto;
+import com.khai.coffeeshop.dto.AvailabilitySearchDto;
+import com.khai.coffeeshop.dto.BookingPageDto;
+import com.khai.coffeeshop.dto.BookingRequestDto;
+import com.khai.coffeeshop.dto.BookingResponseDto;
+import com.khai.coffeeshop.dto.TimeSlotDto;
+import com.khai.coffeeshop.dto.VenueAvailabilityDto;
+import com.khai.coffeeshop.entity.Booking;
+import com.khai.coffeeshop.entity.Customer;
+import com.khai.coffeeshop.entity.Venue;
+import com.khai.coffeeshop.enumTypes.BookingPeriod;
+import com.khai.coffeeshop.enumTypes.BookingStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class VenueBookingServiceTests {
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 6, 1, 0, 0);
+
+    @Autowired
+    private VenueBookingService venueBookingService;
+
+    @Autowired
+    private VenueCalendar venueCalendar;
+
+    @Autowired
+    private BookingDao bookingDao;
+
+    @Autowired
+    private VenueDao venueDao;
+
+    @Autowired
+    private UserDao userDao;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Customer customer;
+    private List<Venue> venues;
+
+    @BeforeEach
+    void setUp() {
+        customer = new Customer();
+        customer.setUsername("booking-tests");
+        customer.setPassword("secret");
+        customer = userDao.save(customer);
+
+        venues = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            venues.add(venueDao.save(Venue.builder()
+                    .name("Venue " + i)
+                    .location("Floor " + i)
+                    .capacity(40)
+                    .pricePerHour(25.0)
+                    .isAvailable(true)
+                    .imageUrl("venue.jpg")
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingDao.deleteAll();
+        venueDao.deleteAll(venues);
+        // Through the service so the cached principal goes with it
+        authService.deleteUser(customer.getUsername());
+    }
+
+    @Test
+    void parallelBookingsNeverOverlap() throws Exception {
+        double conflictsBefore = conflictCount();
+        Random random = new Random(42);
+        List<Callable<Boolean>> attempts = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Venue venue = venues.get(random.nextInt(venues.size()));
+            LocalDateTime start = DAY.plusMinutes(30L * random.nextInt(40));
+            LocalDateTime end = start.plusMinutes(30L * (1 + random.nextInt(6)));
+            BookingRequestDto request = new BookingRequestDto(venue.getId(), start, end, null);
+            attempts.add(() -> {
+                try {
+                    venueBookingService.createBooking(request, customer.getId());
+                    return true;
+                } catch (IllegalStateException conflict) {
+                    return false;
+                }
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        long accepted = 0;
+        try {
+            for (Future<Boolean> result : executor.invokeAll(attempts)) {
+                if (result.get()) {
+                    accepted++;
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<Booking> bookings = bookingDao.findAll();
+        assertThat(bookings).hasSize((int) accepted);
+        assertThat(accepted).isGreaterThan(venues.size());
+        assertThat(conflictCount() - conflictsBefore).isEqualTo(attempts.size() - accepted);
+
+        for (Venue venue : venues) {
+            List<Booking> venueBookings = bookings.stream()
+                    .filter(booking -> booking.getVenue().getId().equals(venue.getId()))
+                    .sorted(Comparator.comparing(Booking::getStartTime))
+                    .toList();
+            for (int i = 1; i < venueBookings.size(); i++) {
+                assertThat(venueBookings.get(i).getStartTime())
+                        .isAfterOrEqualTo(venueBookings.get(i - 1).getEndTime());
+            }
+        }
+    }
+
+    @Test
+    void adjacentBookingsDoNotConflict() {
+        Long venueId = venues.get(0).getId();
+        venueBookingService.createBooking(
+                new BookingRequestDto(venueId, DAY.plusHours(10), DAY.plusHours(12), null), customer.getId());
+
+        assertThat(venueBookingService.checkAvailability(
+                new AvailabilityCheckDto(venueId, DAY.plusHours(12), DAY.plusHours(13)))).isTrue();
+        assertThat(venueBookingService.checkAvailability(
+                new AvailabilityCheckDto(venueId, DAY.plusHours(8), DAY.plusHours(10)))).isTrue();
+        assertThat(venueBookingService.checkAvailability(
+                new AvailabilityCheckDto(venueId, DAY.plusHours(11), DAY.plusHours(14)))).isFalse();
+        assertThat(venueBookingService.checkAvailability(
+                new AvailabilityCheckDto(venueId, DAY.plusHours(10).plusMinutes(30), DAY.plusHours(11)))).isFalse();
+    }
+
+    @Test
+    void bookingMadeOnAnotherNodeIsSeenAfterTheNextSync() {
+        Long venueId = venues.get(0).getId();
+        AvailabilityCheckDto slot = new AvailabilityCheckDto(venueId, DAY.plusHours(9), DAY.plusHours(10));
+        assertThat(venueBookingService.checkAvailability(slot)).isTrue();
+
+        // Saved without the event, as this node sees a booking committed elsewhere
+        bookingDao.save(Booking.builder()
+                .venue(venues.get(0))
+                .user(customer)
+                .startTime(DAY.plusHours(9))
+                .endTime(DAY.plusHours(10))
+                .totalPrice(25.0)
+                .status(BookingStatus.CONFIRMED)
+                .createdAt(DAY)
+                .build());
+        assertThat(venueBookingService.checkAvailability(slot)).isTrue();
+
+        venueCalendar.sync();
+
+        assertThat(venueBookingService.checkAvailability(slot)).isFalse();
+    }
+
+    @Test
+    void readsDuringAResyncNeverSeeAnEmptyCalendar() throws Exception {
+        Long venueId = venues.get(0).getId();
+        venueBookingService.createBooking(
+                new BookingRequestDto(venueId, DAY.plusHours(9), DAY.plusHours(10), null), customer.getId());
+        AvailabilityCheckDto slot = new AvailabilityCheckDto(venueId, DAY.plusHours(9), DAY.plusHours(10));
+
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        AtomicBoolean syncing = new AtomicBoolean(true);
+        try {
+            Future<Long> wronglyFree = reader.submit(() -> {
+                long free = 0;
+                while (syncing.get()) {
+                    if (venueBookingService.checkAvailability(slot)) {
+                        free++;
+                    }
+                }
+                return free;
+            });
+            for (int i = 0; i < 50; i++) {
+                venueCalendar.sync();
+            }
+            syncing.set(false);
+            assertThat(wronglyFree.get()).isZero();
+        } finally {
+            reader.shutdownNow();
+        }
+    }
+
+    @Test
+    void cancelledBookingFreesItsSlot() {
+        Long venueId = venues.get(0).getId();
+        Long bookingId = venueBookingService.createBooking(
+                new BookingRequestDto(venueId, DAY.plusHours(10), DAY.plusHours(12), null), customer.getId()).id();
+        AvailabilityCheckDto sameSlot = new AvailabilityCheckDto(venueId, DAY.plusHours(10), DAY.plusHours(12));
+        assertThat(venueBookingService.checkAvailability(sameSlot)).isFalse();
+
+        assertThatThrownBy(() -> venueBookingService.cancelBooking(bookingId, customer.getId() + 1))
+                .isInstanceOf(IllegalStateException.class);
+        venueBookingService.cancelBooking(bookingId, customer.getId());
+
+        assertThat(venueBookingService.checkAvailability(sameSlot)).isTrue();
+        venueBookingService.createBooking(
+                new BookingRequestDto(venueId, DAY.plusHours(10), DAY.plusHours(12), null), customer.getId());
+    }
+
+    @Test
+    void freeSlotsAreTheGapsWithinOpeningHours() {
+        Long venueId = venues.get(0).getId();
+        venueBookingService.createBooking(
+                new BookingRequestDto(venueId, DAY.plusHours(7), DAY.plusHours(9), null), customer.getId());
+        venueBookingService.createBooking(
+                new BookingRequestDto(venueId, DAY.plusHours(12), DAY.plusHours(14), null), customer.getId());
+        venueBookingService.createBooking(
+                new BookingRequestDto(venueId, DAY.plusHours(14), DAY.plusHours(15), null), customer.getId());
+
+        assertThat(venueBookingService.getFreeSlots(venueId, DAY.toLocalDate())).containsExactly(
+                new TimeSlotDto(DAY.plusHours(9), DAY.plusHours(12)),
+                new TimeSlotDto(DAY.plusHours(15), DAY.plusHours(22)));
+        assertThat(venueBookingService.getFreeSlots(venues.get(1).getId(), DAY.toLocalDate())).containsExactly(
+                new TimeSlotDto(DAY.plusHours(8), DAY.plusHours(22)));
+    }
+
+    @Test
+    void availabilitySearchReturnsVenuesWithALongEnoughGap() {
+        Venue small = venues.get(0);
+        Venue large = venueDao.save(Venue.builder()
+                .name("Hall")
+                .location("Ground floor")
+                .capacity(80)
+                .pricePerHour(60.0)
+                .isAvailable(true)
+                .imageUrl("hall.jpg")
+                .build());
+        venues.add(large);
+        venueBookingService.createBooking(
+                new BookingRequestDto(large.getId(), DAY.plusHours(18), DAY.plusHours(19), null), customer.getId());
+        venueBookingService.createBooking(
+                new BookingRequestDto(large.getId(), DAY.plusHours(20), DAY.plusHours(21), null), customer.getId());
+
+        List<VenueAvailabilityDto> forSixty = venueBookingService.searchAvailability(
+                new AvailabilitySearchDto(DAY.plusHours(18), DAY.plusHours(22), 60, 60));
+        assertThat(forSixty).singleElement().satisfies(result -> {
+            assertThat(result.venue().id()).isEqualTo(large.getId());
+            assertThat(result.freeSlots()).containsExactly(
+                    new TimeSlotDto(DAY.plusHours(19), DAY.plusHours(20)),
+                    new TimeSlotDto(DAY.plusHours(21), DAY.plusHours(22)));
+        });
+
+        assertThat(venueBookingService.searchAvailability(
+                new AvailabilitySearchDto(DAY.plusHours(18), DAY.plusHours(22), 90, 60))).isEmpty();
+        assertThat(venueBookingService.searchAvailability(
+                new AvailabilitySearchDto(DAY.plusHours(18), DAY.plusHours(22), 120, 10)))
+                .extracting(result -> result.venue().id())
+                .contains(small.getId())
+                .doesNotContain(large.getId());
+    }
+
+    @Test
+    void emptyOrReversedIntervalsAreRejected() {
+        Long venueId = venues.get(0).getId();
+        assertThatThrownBy(() -> venueBookingService.createBooking(
+                new BookingRequestDto(venueId, DAY.plusHours(12), DAY.plusHours(12), null), customer.getId()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> venueBookingService.checkAvailability(
+                new AvailabilityCheckDto(venueId, DAY.plusHours(12), DAY.plusHours(11))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void bookingHistoryIsPagedByPeriodInOneQueryPerPage() {
+        for (int day = 0; day < 5; day++) {
+            for (Venue venue : venues) {
+                venueBookingService.createBooking(new BookingRequestDto(venue.getId(),
+                        DAY.plusDays(day).plusHours(10), DAY.plusDays(day).plusHours(12), null), customer.getId());
+            }
+        }
+        LocalDateTime lastWeek = LocalDateTime.now().minusDays(7).withNano(0);
+        for (int hour = 0; hour < 3; hour++) {
+            bookingDao.save(Booking.builder()
+                    .venue(venues.get(0))
+                    .user(customer)
+                    .startTime(lastWeek.plusHours(hour))
+                    .endTime(lastWeek.plusHours(hour + 1))
+                    .totalPrice(25.0)
+                    .status(hour == 0 ? BookingStatus.CANCELLED : BookingStatus.COMPLETED)
+                    .createdAt(lastWeek)
+                    .build());
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<BookingResponseDto> upcoming = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            BookingPageDto page = venueBookingService.getUserBookingPage(
+                    customer.getId(), BookingPeriod.UPCOMING, null, 4, cursor);
+            upcoming.addAll(page.items());
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(upcoming).hasSize(10);
+        assertThat(upcoming).extracting(BookingResponseDto::id).doesNotHaveDuplicates();
+        assertThat(upcoming).isSortedAccordingTo(Comparator.comparing(BookingResponseDto::startTime)
+                .thenComparing(BookingResponseDto::id));
+        assertThat(upcoming).allSatisfy(booking -> assertThat(booking.venue().name()).startsWith("Venue "));
+
+        BookingPageDto past = venueBookingService.getUserBookingPage(
+                customer.getId(), BookingPeriod.PAST, BookingStatus.COMPLETED, 10, null);
+        assertThat(past.nextCursor()).isNull();
+        assertThat(past.items()).extracting(BookingResponseDto::startTime)
+                .containsExactly(lastWeek.plusHours(2), lastWeek.plusHours(1));
+
+        String upcomingCursor = venueBookingService.getUserBookingPage(
+                customer.getId(), BookingPeriod.UPCOMING, null, 1, null).nextCursor();
+        assertThatThrownBy(() -> venueBookingService.getUserBookingPage(
+                customer.getId(), BookingPeriod.PAST, null, 1, upcomingCursor))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThat(venueBookingService.getUserBookings(customer.getId())).hasSize(13);
+    }
+
+    private double conflictCount() {
+        return meterRegistry.counter("coda.bookings.conflicts", "reason", "overlap").count();
+    }
+}
@@ -0,0 +1,136 @@
+package com.khai.coffeeshop.benchmarks;
+
+import com.khai.coffeeshop.dao.BookingDao;
+import com.khai.coffeeshop.dto.BookingInterval;
+import com.khai.coffeeshop.dto.TimeSlotDto;
+import com.khai.coffeeshop.service.VenueCalendar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+Availability checks against VenueCalendar's in-memory schedules, loaded from a stub DAO.
+linearScan is the same overlap test over a plain list, what every check cost before the calendar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingOverlapBenchmark {
+    private static final int VENUES = 10;
+    private static final int PROBES = 1024;
+
+    @Param({"100", "10000"})
+    private int bookingsPerVenue;
+
+    private VenueCalendar calendar;
+    private List<List<BookingInterval>> intervalsByVenue;
+
+    private final long[] probeVenues = new long[PROBES];
+    private final LocalDateTime[] probeStarts = new LocalDateTime[PROBES];
+    private final LocalDateTime[] probeEnds = new LocalDateTime[PROBES];
+    private int probe;
+
+    @Setup
+    public void setUp() {
+        // Two-hour bookings with a one-hour gap, starting tomorrow so the calendar holds all of them
+        LocalDateTime first = LocalDateTime.now().plusDays(1).withHour(8).withMinute(0).withSecond(0).withNano(0);
+        List<BookingInterval> intervals = new ArrayList<>();
+        intervalsByVenue = new ArrayList<>();
+        long bookingId = 1;
+        for (long venueId = 1; venueId <= VENUES; venueId++) {
+            List<BookingInterval> venueIntervals = new ArrayList<>(bookingsPerVenue);
+            for (int i = 0; i < bookingsPerVenue; i++) {
+                LocalDateTime start = first.plusHours(3L * i);
+                venueIntervals.add(new BookingInterval(bookingId++, venueId, start, start.plusHours(2)));
+            }
+            intervalsByVenue.add(venueIntervals);
+            intervals.addAll(venueIntervals);
+        }
+
+        calendar = new VenueCalendar(stubDao(intervals), new NoTransactionManager());
+        calendar.load();
+
+        Random random = new Random(42);
+        for (int i = 0; i < PROBES; i++) {
+            probeVenues[i] = 1 + random.nextInt(VENUES);
+            probeStarts[i] = first.plusMinutes(30L * random.nextInt(bookingsPerVenue * 6));
+            probeEnds[i] = probeStarts[i].plusHours(1);
+        }
+    }
+
+    @Benchmark
+    public boolean calendarIsFree() {
+        int i = nextProbe();
+        return calendar.isFree(probeVenues[i], probeStarts[i], probeEnds[i]);
+    }
+
+    @Benchmark
+    public List<TimeSlotDto> calendarFreeSlots() {
+        int i = nextProbe();
+        return calendar.freeSlots(probeVenues[i], probeStarts[i], probeStarts[i].plusHours(14));
+    }
+
+    @Benchmark
+    public boolean linearScan() {
+        int i = nextProbe();
+        for (BookingInterval interval : intervalsByVenue.get((int) probeVenues[i] - 1)) {
+            if (interval.startTime().isBefore(probeEnds[i]) && interval.endTime().isAfter(probeStarts[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int nextProbe() {
+        probe = (probe + 1) & (PROBES - 1);
+        return probe;
+    }
+
+    // Only the load query is answered, anything else means the benchmark left the in-memory path
+    private static BookingDao stubDao(List<BookingInterval> intervals) {
+        return (BookingDao) Proxy.newProxyInstance(BookingDao.class.getClassLoader(), new Class<?>[]{BookingDao.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findActiveIntervalsEndingAfter")) {
+                        return intervals;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static final class NoTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.khai.coffeeshop.benchmarks;
+
+import com.khai.coffeeshop.controller.ImageController;
+import com.khai.coffeeshop.service.ImageCache;
+import com.khai.coffeeshop.service.ImageService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.Resource;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ImageController.getImage plus draining the body the way the resource converter writes it.
+The small image is served from ImageCache after the first read, the large one is over the
+per-entry limit and streamed from disk (page cache) every time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImageServingBenchmark {
+    private static final String SMALL_IMAGE = "small.jpg";
+    private static final String LARGE_IMAGE = "large.jpg";
+
+    private Path baseDir;
+    private ImageController controller;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // ImageService resolves uploads/ against user.dir when it is created
+        baseDir = Files.createTempDirectory("coda-bean-images");
+        Path productImages = Files.createDirectories(baseDir.resolve("uploads").resolve("product_images"));
+        Random random = new Random(42);
+        Files.write(productImages.resolve(SMALL_IMAGE), randomBytes(random, 48 * 1024));
+        Files.write(productImages.resolve(LARGE_IMAGE), randomBytes(random, 4 * 1024 * 1024));
+
+        String userDir = System.getProperty("user.dir");
+        System.setProperty("user.dir", baseDir.toString());
+        try {
+            ImageCache cache = new ImageCache(64L * 1024 * 1024, 2L * 1024 * 1024, false);
+            controller = new ImageController(new ImageService(cache, null, null, null, null));
+        } finally {
+            System.setProperty("user.dir", userDir);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(baseDir);
+    }
+
+    @Benchmark
+    public long cachedImage() throws IOException {
+        return serve(SMALL_IMAGE);
+    }
+
+    @Benchmark
+    public long streamedImage() throws IOException {
+        return serve(LARGE_IMAGE);
+    }
+
+    private long serve(String imageName) throws IOException {
+        Resource body = controller.getImage(imageName, null).getBody();
+        try (InputStream input = body.getInputStream()) {
+            return input.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    private static byte[] randomBytes(Random random, int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+}
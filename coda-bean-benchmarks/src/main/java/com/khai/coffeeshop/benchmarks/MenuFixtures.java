@@ -0,0 +1,104 @@
+package com.khai.coffeeshop.benchmarks;
+
+import com.khai.coffeeshop.dto.MenuCategoryDto;
+import com.khai.coffeeshop.dto.ProductDto;
+import com.khai.coffeeshop.entity.MenuCategory;
+import com.khai.coffeeshop.entity.MenuItem;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/*
+Deterministic catalog data shaped like the seeded menu: categories of items with two or three
+tags and a sentence of description, built from a small café vocabulary so searches have realistic hits.
+ */
+final class MenuFixtures {
+    private static final String[] CATEGORIES = {
+            "Espresso", "Filter", "Tea", "Cold Drinks", "Pastries", "Sandwiches", "Desserts", "Seasonal"
+    };
+    private static final String[] ADJECTIVES = {
+            "Iced", "Spiced", "Vanilla", "Caramel", "Hazelnut", "Honey", "Smoked", "Double", "Oat", "Classic"
+    };
+    private static final String[] NOUNS = {
+            "Latte", "Cappuccino", "Flat White", "Mocha", "Cortado", "Cold Brew", "Chai", "Matcha",
+            "Croissant", "Scone", "Brownie", "Cheesecake", "Bagel", "Panini", "Affogato", "Americano"
+    };
+    private static final String[] TAGS = {
+            "coffee", "dairy-free", "vegan", "gluten-free", "hot", "cold", "sweet", "seasonal", "bestseller"
+    };
+    private static final String[] WORDS = {
+            "single", "origin", "beans", "steamed", "milk", "roasted", "house", "blend", "topped", "with",
+            "cinnamon", "cocoa", "syrup", "fresh", "butter", "served", "warm", "slow", "brewed", "hours"
+    };
+
+    private MenuFixtures() {}
+
+    static List<MenuCategory> categories(int categories, int itemsPerCategory) {
+        Random random = new Random(42);
+        List<MenuCategory> menu = new ArrayList<>(categories);
+        long itemId = 1;
+        for (int c = 0; c < categories; c++) {
+            MenuCategory category = new MenuCategory();
+            category.setId((long) c + 1);
+            category.setName(CATEGORIES[c % CATEGORIES.length] + (c < CATEGORIES.length ? "" : " " + c));
+            category.setDescription(sentence(random, 8));
+            category.setIconEmoji("☕");
+            for (int i = 0; i < itemsPerCategory; i++) {
+                MenuItem item = new MenuItem();
+                item.setId(itemId++);
+                item.setName(pick(random, ADJECTIVES) + " " + pick(random, NOUNS));
+                item.setDescription(sentence(random, 12));
+                item.setPrice(BigDecimal.valueOf(250 + random.nextInt(600), 2));
+                item.setAvailable(random.nextInt(10) > 0);
+                item.setImageUrl("item-" + item.getId() + ".jpg");
+                item.setPreparationTime(2 + random.nextInt(10));
+                Set<String> tags = new HashSet<>();
+                int tagCount = 2 + random.nextInt(2);
+                while (tags.size() < tagCount) {
+                    tags.add(pick(random, TAGS));
+                }
+                item.setTags(tags);
+                item.setCategory(category);
+                category.getItems().add(item);
+            }
+            menu.add(category);
+        }
+        return menu;
+    }
+
+    static List<MenuCategoryDto> menu(int categories, int itemsPerCategory) {
+        return categories(categories, itemsPerCategory).stream()
+                .map(MenuCategoryDto::fromEntity)
+                .toList();
+    }
+
+    static List<ProductDto> products(int count) {
+        Random random = new Random(7);
+        List<ProductDto> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(new ProductDto(i + 1, pick(random, CATEGORIES),
+                    pick(random, ADJECTIVES) + " " + pick(random, NOUNS) + " Beans",
+                    sentence(random, 10), 8 + random.nextInt(30), "product-" + (i + 1) + ".jpg"));
+        }
+        return products;
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(pick(random, WORDS));
+        }
+        return sentence.toString();
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
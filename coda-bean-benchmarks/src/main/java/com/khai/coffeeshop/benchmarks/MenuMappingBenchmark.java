@@ -0,0 +1,44 @@
+package com.khai.coffeeshop.benchmarks;
+
+import com.khai.coffeeshop.dto.MenuCategoryDto;
+import com.khai.coffeeshop.entity.MenuCategory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Entity to DTO mapping of the whole menu, the CPU part of every MenuCache rebuild
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MenuMappingBenchmark {
+    @Param({"5", "50"})
+    private int itemsPerCategory;
+
+    private List<MenuCategory> categories;
+
+    @Setup
+    public void setUp() {
+        categories = MenuFixtures.categories(8, itemsPerCategory);
+    }
+
+    @Benchmark
+    public List<MenuCategoryDto> mapMenu() {
+        return categories.stream()
+                .map(MenuCategoryDto::fromEntity)
+                .toList();
+    }
+}
@@ -0,0 +1,59 @@
+package com.khai.coffeeshop.benchmarks;
+
+import com.khai.coffeeshop.dto.MenuCategoryDto;
+import com.khai.coffeeshop.dto.MenuItemDto;
+import com.khai.coffeeshop.dto.SuggestionDto;
+import com.khai.coffeeshop.search.MenuSearchIndex;
+import com.khai.coffeeshop.search.SuggestIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+Query cost against prebuilt indexes, as MenuService.searchItems and the suggest endpoint run it.
+"latte" is an exact term, "oat la" a two-token prefix query, "capucino" a typo only the suggest index forgives.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MenuSearchBenchmark {
+    @Param({"5", "50"})
+    private int itemsPerCategory;
+
+    @Param({"latte", "oat la", "capucino"})
+    private String query;
+
+    private MenuSearchIndex searchIndex;
+    private SuggestIndex suggestIndex;
+
+    @Setup
+    public void setUp() {
+        List<MenuCategoryDto> menu = MenuFixtures.menu(8, itemsPerCategory);
+        searchIndex = MenuSearchIndex.build(menu);
+        suggestIndex = SuggestIndex.build(menu, MenuFixtures.products(itemsPerCategory * 8));
+    }
+
+    @Benchmark
+    public List<MenuItemDto> searchItems() {
+        return searchIndex.search(query);
+    }
+
+    @Benchmark
+    public List<SuggestionDto> suggest() {
+        return suggestIndex.suggest(query, 8);
+    }
+}
@@ -19,18 +19,15 @@ const Login: React.FC = () => {
     setError("");
 
     try {
-      const token = await authService.login({
+      const tokens = await authService.login({
         username,
         password,
       });
 
-      // Determine role from the token (adjust based on your actual token format)
-      const role = token.includes("ROLE_ADMIN") ? "ROLE_ADMIN" : "ROLE_USER";
-
       // Use the context login function
-      login(token, username, role, rememberMe);
+      login(tokens, username, rememberMe);
 
-      console.log("Login successful:", token);
+      console.log("Login successful");
       navigate("/"); // Use navigate instead of window.location.href
     } catch (err: any) {
       setError(err?.response?.data || "Login failed. Please try again.");
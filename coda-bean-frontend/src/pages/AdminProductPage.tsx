@@ -11,9 +11,21 @@ import {
 import { motion, AnimatePresence } from "framer-motion";
 import { ProductDto, productService } from "../services/product.service";
 
+const PAGE_SIZE = 50;
+
+const SERVER_SORTS: Partial<Record<keyof ProductDto, "id" | "name" | "price">> =
+  {
+    id: "id",
+    productName: "name",
+    price: "price",
+  };
+
 const AdminProductsPage = () => {
   // State management
   const [products, setProducts] = useState<ProductDto[]>([]);
+  const [categories, setCategories] = useState<string[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
   const [isModalOpen, setIsModalOpen] = useState(false);
@@ -31,12 +43,32 @@ const AdminProductsPage = () => {
     direction: "ascending",
   });
 
+  // Id, name and price are sorted by the server across all pages, other columns within the loaded rows
+  const serverSort = SERVER_SORTS[sortConfig.key] ?? "id";
+  const serverDirection =
+    sortConfig.key in SERVER_SORTS && sortConfig.direction === "descending"
+      ? "desc"
+      : "asc";
+
+  const fetchFirstPage = async () => {
+    const page = await productService.getProductPage({
+      sort: serverSort,
+      direction: serverDirection,
+      size: PAGE_SIZE,
+    });
+    setProducts(page.items);
+    setNextCursor(page.nextCursor);
+    productService
+      .getCategories()
+      .then(setCategories)
+      .catch((err) => console.error(err));
+  };
+
   // Fetch products
   useEffect(() => {
     const fetchProducts = async () => {
       try {
-        const fetchedProducts = await productService.getAllProducts();
-        setProducts(fetchedProducts);
+        await fetchFirstPage();
         setLoading(false);
       } catch (err: any) {
         setError("Failed to fetch products: " + (err.message || ""));
@@ -46,7 +78,28 @@ const AdminProductsPage = () => {
     };
 
     fetchProducts();
-  }, []);
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, [serverSort, serverDirection]);
+
+  const loadMore = async () => {
+    if (!nextCursor) return;
+    setLoadingMore(true);
+    try {
+      const page = await productService.getProductPage({
+        sort: serverSort,
+        direction: serverDirection,
+        size: PAGE_SIZE,
+        cursor: nextCursor,
+      });
+      setProducts((prev) => [...prev, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (err: any) {
+      setError("Failed to fetch products: " + (err.message || ""));
+      console.error(err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
 
   // Sorting functionality
   const requestSort = (key: keyof ProductDto) => {
@@ -83,13 +136,6 @@ const AdminProductsPage = () => {
     );
   });
 
-  // Get unique categories from products
-  const categories = useMemo(() => {
-    const uniqueCategories = new Set<string>();
-    products.forEach((product) => uniqueCategories.add(product.category));
-    return Array.from(uniqueCategories);
-  }, [products]);
-
   // Image handling
   const handleImageChange = (e: React.ChangeEvent<HTMLInputElement>) => {
     if (e.target.files && e.target.files[0]) {
@@ -171,8 +217,7 @@ const AdminProductsPage = () => {
       }
 
       // Refresh products after successful operation
-      const fetchedProducts = await productService.getAllProducts();
-      setProducts(fetchedProducts);
+      await fetchFirstPage();
 
       setIsModalOpen(false);
       setSelectedImage(null);
@@ -346,7 +391,7 @@ const AdminProductsPage = () => {
                             <img
                               src={
                                 "http://localhost:8080/api/images/product-image/" +
-                                product.imageUrl
+                                product.imageUrl + "?size=thumb"
                               }
                               alt={product.productName}
                               className="h-full w-full object-cover"
@@ -383,6 +428,17 @@ const AdminProductsPage = () => {
               </tbody>
             </table>
           </div>
+          {nextCursor && (
+            <div className="px-6 py-4 text-center border-t border-gray-200">
+              <button
+                onClick={loadMore}
+                disabled={loadingMore}
+                className="px-4 py-2 rounded-md text-sm text-[#4A6B57] border border-[#4A6B57] hover:bg-[#4A6B57] hover:text-white transition-colors disabled:opacity-50"
+              >
+                {loadingMore ? "Loading..." : "Load more"}
+              </button>
+            </div>
+          )}
         </div>
       </div>
 
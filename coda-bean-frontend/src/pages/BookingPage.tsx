@@ -4,7 +4,7 @@ import {
   checkAvailability,
   createBooking,
   getAvailableVenues,
-  getUserBookings,
+  getUserBookingPage,
 } from "../services/venue.service";
 import { toast } from "react-hot-toast";
 
@@ -19,6 +19,7 @@ export const BookingPage = () => {
   const [confirmedBooking, setConfirmedBooking] =
     useState<BookingResponseDto | null>(null);
   const [userBookings, setUserBookings] = useState<BookingResponseDto[]>([]);
+  const [bookingsCursor, setBookingsCursor] = useState<string | null>(null);
 
   useEffect(() => {
     // Load venues
@@ -30,10 +31,14 @@ export const BookingPage = () => {
     loadUserBookings();
   }, []);
 
-  const loadUserBookings = async () => {
+  // Upcoming bookings a page at a time, "Load more" continues from the last cursor
+  const loadUserBookings = async (cursor: string | null = null) => {
     try {
-      const bookings = await getUserBookings();
-      setUserBookings(bookings);
+      const page = await getUserBookingPage("upcoming", cursor);
+      setUserBookings((current) =>
+        cursor ? [...current, ...page.items] : page.items,
+      );
+      setBookingsCursor(page.nextCursor);
     } catch (error) {
       toast.error("Failed to load your bookings");
     }
@@ -249,6 +254,15 @@ export const BookingPage = () => {
               </div>
             ))}
           </div>
+          {bookingsCursor && (
+            <button
+              type="button"
+              onClick={() => loadUserBookings(bookingsCursor)}
+              className="mt-4 text-blue-700 hover:underline"
+            >
+              Load more
+            </button>
+          )}
         </div>
       )}
     </div>
@@ -15,9 +15,14 @@ interface CartItem extends ProductDto {
   quantity: number;
 }
 
+const PAGE_SIZE = 24;
+
 const ProductPage: React.FC = () => {
   // State management
   const [products, setProducts] = useState<ProductDto[]>([]);
+  const [categories, setCategories] = useState<string[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
   const [selectedCategory, setSelectedCategory] = useState<string | null>(null);
@@ -32,12 +37,26 @@ const ProductPage: React.FC = () => {
   const [imageLoaded, setImageLoaded] = useState<Record<number, boolean>>({});
   const navigate = useNavigate();
 
-  // Fetch products
+  // Fetch categories once
+  useEffect(() => {
+    productService
+      .getCategories()
+      .then(setCategories)
+      .catch((err) => console.error(err));
+  }, []);
+
+  // Fetch the first page again whenever the category or sort changes
   useEffect(() => {
     const fetchProducts = async () => {
       try {
-        const products = await productService.getAllProducts();
-        setProducts(products);
+        const page = await productService.getProductPage({
+          category: selectedCategory,
+          sort: sortOption,
+          direction: sortDirection,
+          size: PAGE_SIZE,
+        });
+        setProducts(page.items);
+        setNextCursor(page.nextCursor);
         setLoading(false);
       } catch (err) {
         setError("Failed to load products");
@@ -47,36 +66,40 @@ const ProductPage: React.FC = () => {
     };
 
     fetchProducts();
-  }, []);
+  }, [selectedCategory, sortOption, sortDirection]);
+
+  const loadMore = async () => {
+    if (!nextCursor) return;
+    setLoadingMore(true);
+    try {
+      const page = await productService.getProductPage({
+        category: selectedCategory,
+        sort: sortOption,
+        direction: sortDirection,
+        size: PAGE_SIZE,
+        cursor: nextCursor,
+      });
+      setProducts((prev) => [...prev, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (err) {
+      console.error(err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
 
   // Handle image load
   const handleImageLoad = (productId: number) => {
     setImageLoaded((prev) => ({ ...prev, [productId]: true }));
   };
 
-  // Get unique categories from products
-  const categories = Array.from(new Set(products.map((p) => p.category)));
-
-  // Filter and sort products
-  const filteredProducts = products
-    .filter((product) => {
-      const matchesCategory =
-        !selectedCategory || product.category === selectedCategory;
-      const matchesSearch =
-        searchQuery === "" ||
-        product.productName.toLowerCase().includes(searchQuery.toLowerCase()) ||
-        product.description.toLowerCase().includes(searchQuery.toLowerCase());
-      return matchesCategory && matchesSearch;
-    })
-    .sort((a, b) => {
-      if (sortOption === "name") {
-        return sortDirection === "asc"
-          ? a.productName.localeCompare(b.productName)
-          : b.productName.localeCompare(a.productName);
-      } else {
-        return sortDirection === "asc" ? a.price - b.price : b.price - a.price;
-      }
-    });
+  // Category and sort are applied by the server, the search box filters the loaded pages
+  const filteredProducts = products.filter(
+    (product) =>
+      searchQuery === "" ||
+      product.productName.toLowerCase().includes(searchQuery.toLowerCase()) ||
+      product.description.toLowerCase().includes(searchQuery.toLowerCase()),
+  );
 
   // Handle category selection
   const handleCategoryClick = (
@@ -292,7 +315,7 @@ const ProductPage: React.FC = () => {
                 <img
                   src={
                     "http://localhost:8080/api/images/product-image/" +
-                    product.imageUrl || "/placeholder-product.jpg"
+                    product.imageUrl + "?size=card" || "/placeholder-product.jpg"
                   }
                   alt={product.productName}
                   className={`w-full h-full object-cover transition-opacity duration-300 ${imageLoaded[product.id] ? "opacity-100" : "opacity-0"}`}
@@ -327,6 +350,18 @@ const ProductPage: React.FC = () => {
           ))}
         </div>
 
+        {nextCursor && (
+          <div className="text-center mt-8">
+            <button
+              onClick={loadMore}
+              disabled={loadingMore}
+              className="px-6 py-2 rounded-lg bg-white text-[#4A6B57] border border-[#4A6B57] hover:bg-[#4A6B57] hover:text-white transition-colors disabled:opacity-50"
+            >
+              {loadingMore ? "Loading..." : "Load more"}
+            </button>
+          </div>
+        )}
+
         {filteredProducts.length === 0 && (
           <div className="text-center py-12">
             <ExclamationCircleIcon className="h-12 w-12 mx-auto text-gray-400 mb-4" />
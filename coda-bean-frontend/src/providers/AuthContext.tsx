@@ -5,6 +5,7 @@ import React, {
   useEffect,
   ReactNode,
 } from "react";
+import { authService, tokenRole, tokenStore, TokenResponse } from "../services/auth.service";
 
 interface AuthContextType {
   token: string | null;
@@ -12,12 +13,7 @@ interface AuthContextType {
   role: string | null;
   isAuthenticated: boolean;
   isAdmin: boolean;
-  login: (
-    token: string,
-    username: string,
-    role: string,
-    rememberMe: boolean,
-  ) => void;
+  login: (tokens: TokenResponse, username: string, rememberMe: boolean) => void;
   logout: () => void;
 }
 
@@ -29,40 +25,27 @@ export const AuthProvider = ({ children }: { children: ReactNode }) => {
   const [role, setRole] = useState<string | null>(null);
 
   useEffect(() => {
-    // Check for token in storage when app loads
-    const storedToken =
-      localStorage.getItem("authToken") || sessionStorage.getItem("authToken");
+    // Check for token in storage when app loads, the role is a claim of the token
+    const storedToken = tokenStore.accessToken();
     if (storedToken) {
-      // In a real app, you might want to validate the token with the backend
-      // or decode it to get user info if using JWT
       setToken(storedToken);
-      // For demo, we'll parse role from token (adjust based on your actual token format)
-      const role = storedToken.includes("ROLE_ADMIN")
-        ? "ROLE_ADMIN"
-        : "ROLE_USER";
-      setRole(role);
+      setRole(tokenRole(storedToken));
     }
   }, []);
 
   const login = (
-    newToken: string,
+    tokens: TokenResponse,
     newUsername: string,
-    role: string,
     rememberMe: boolean,
   ) => {
-    if (rememberMe) {
-      localStorage.setItem("authToken", newToken);
-    } else {
-      sessionStorage.setItem("authToken", newToken);
-    }
-    setToken(newToken);
+    tokenStore.save(tokens, rememberMe);
+    setToken(tokens.accessToken);
     setUsername(newUsername);
-    setRole(role);
+    setRole(tokens.role);
   };
 
   const logout = () => {
-    localStorage.removeItem("authToken");
-    sessionStorage.removeItem("authToken");
+    authService.logout();
     setToken(null);
     setUsername(null);
     setRole(null);
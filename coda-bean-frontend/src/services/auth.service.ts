@@ -1,4 +1,4 @@
-import axios from "axios";
+import axios, { AxiosError, InternalAxiosRequestConfig } from "axios";
 
 export interface LoginDto {
   username: string;
@@ -21,12 +21,66 @@ export interface CustomerDto {
   phone: string;
 }
 
+export interface TokenResponse {
+  accessToken: string;
+  refreshToken: string;
+  tokenType: string;
+  expiresIn: number;
+  role: string | null;
+}
+
+const ACCESS_TOKEN_KEY = "authToken";
+const REFRESH_TOKEN_KEY = "refreshToken";
+
+// Tokens live in localStorage with "remember me", in sessionStorage otherwise
+export const tokenStore = {
+  storage(): Storage | null {
+    if (localStorage.getItem(ACCESS_TOKEN_KEY)) return localStorage;
+    if (sessionStorage.getItem(ACCESS_TOKEN_KEY)) return sessionStorage;
+    return null;
+  },
+  accessToken(): string | null {
+    return this.storage()?.getItem(ACCESS_TOKEN_KEY) ?? null;
+  },
+  refreshToken(): string | null {
+    return this.storage()?.getItem(REFRESH_TOKEN_KEY) ?? null;
+  },
+  save(tokens: TokenResponse, rememberMe: boolean) {
+    this.clear();
+    const storage = rememberMe ? localStorage : sessionStorage;
+    storage.setItem(ACCESS_TOKEN_KEY, tokens.accessToken);
+    storage.setItem(REFRESH_TOKEN_KEY, tokens.refreshToken);
+  },
+  update(tokens: TokenResponse) {
+    const storage = this.storage() ?? sessionStorage;
+    storage.setItem(ACCESS_TOKEN_KEY, tokens.accessToken);
+    storage.setItem(REFRESH_TOKEN_KEY, tokens.refreshToken);
+  },
+  clear() {
+    for (const storage of [localStorage, sessionStorage]) {
+      storage.removeItem(ACCESS_TOKEN_KEY);
+      storage.removeItem(REFRESH_TOKEN_KEY);
+    }
+  },
+};
+
+// The role claim of an access token, the payload is base64url JSON ahead of the signature
+export const tokenRole = (token: string): string | null => {
+  try {
+    const payload = token.split(".")[0].replace(/-/g, "+").replace(/_/g, "/");
+    return JSON.parse(atob(payload)).role ?? null;
+  } catch {
+    return null;
+  }
+};
+
 class AuthService {
   private apiUrl = "http://localhost:8080/api/auth";
+  private pendingRefresh: Promise<TokenResponse> | null = null;
 
-  async login(loginDto: LoginDto): Promise<string> {
+  async login(loginDto: LoginDto): Promise<TokenResponse> {
     try {
-      const response = await axios.post<string>(
+      const response = await axios.post<TokenResponse>(
         `${this.apiUrl}/login`,
         loginDto,
       );
@@ -37,6 +91,39 @@ class AuthService {
     }
   }
 
+  // Concurrent 401s share one refresh, the refresh token is single use
+  refresh(): Promise<TokenResponse> {
+    if (!this.pendingRefresh) {
+      const refreshToken = tokenStore.refreshToken();
+      this.pendingRefresh = axios
+        .post<TokenResponse>(`${this.apiUrl}/refresh`, { refreshToken })
+        .then((response) => {
+          tokenStore.update(response.data);
+          return response.data;
+        })
+        .finally(() => {
+          this.pendingRefresh = null;
+        });
+    }
+    return this.pendingRefresh;
+  }
+
+  async logout(): Promise<void> {
+    const accessToken = tokenStore.accessToken();
+    const refreshToken = tokenStore.refreshToken();
+    tokenStore.clear();
+    if (!accessToken) return;
+    try {
+      await axios.post(
+        `${this.apiUrl}/logout`,
+        { refreshToken },
+        { headers: { Authorization: `Bearer ${accessToken}` } },
+      );
+    } catch (error) {
+      console.error("Logout failed:", error);
+    }
+  }
+
   async registerAdmin(adminDto: AdminDto): Promise<string> {
     try {
       const response = await axios.post<string>(
@@ -87,3 +174,34 @@ class AuthService {
 }
 
 export const authService = new AuthService();
+
+// Every request carries the access token, a 401 is retried once after refreshing it
+axios.interceptors.request.use((config) => {
+  const token = tokenStore.accessToken();
+  if (token && !config.headers.Authorization) {
+    config.headers.Authorization = `Bearer ${token}`;
+  }
+  return config;
+});
+
+axios.interceptors.response.use(undefined, async (error: AxiosError) => {
+  const config = error.config as (InternalAxiosRequestConfig & { retried?: boolean }) | undefined;
+  if (
+    error.response?.status !== 401 ||
+    !config ||
+    config.retried ||
+    config.url?.startsWith("http://localhost:8080/api/auth/") ||
+    !tokenStore.refreshToken()
+  ) {
+    throw error;
+  }
+  config.retried = true;
+  try {
+    const tokens = await authService.refresh();
+    config.headers.Authorization = `Bearer ${tokens.accessToken}`;
+  } catch {
+    tokenStore.clear();
+    throw error;
+  }
+  return axios(config);
+});
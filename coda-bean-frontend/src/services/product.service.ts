@@ -9,6 +9,21 @@ export interface ProductDto {
   imageUrl: string;
 }
 
+export interface ProductPageDto {
+  items: ProductDto[];
+  nextCursor: string | null;
+}
+
+export interface ProductPageQuery {
+  category?: string | null;
+  minPrice?: number;
+  maxPrice?: number;
+  sort?: "id" | "name" | "price";
+  direction?: "asc" | "desc";
+  size?: number;
+  cursor?: string | null;
+}
+
 class ProductService {
   private apiUrl = "http://localhost:8080/api/products"; // Added http://
 
@@ -22,6 +37,34 @@ class ProductService {
     }
   }
 
+  // Keyset-paginated listing, pass nextCursor back with the same filters to get the following page
+  async getProductPage(query: ProductPageQuery = {}): Promise<ProductPageDto> {
+    try {
+      const params = Object.fromEntries(
+        Object.entries(query).filter(
+          ([, value]) => value !== undefined && value !== null,
+        ),
+      );
+      const response = await axios.get<ProductPageDto>(`${this.apiUrl}/page`, {
+        params,
+      });
+      return response.data;
+    } catch (error) {
+      console.error("Error fetching product page:", error);
+      throw error;
+    }
+  }
+
+  async getCategories(): Promise<string[]> {
+    try {
+      const response = await axios.get<string[]>(`${this.apiUrl}/categories`);
+      return response.data;
+    } catch (error) {
+      console.error("Error fetching product categories:", error);
+      throw error;
+    }
+  }
+
   async getProductDetail(id: number): Promise<ProductDto> {
     try {
       const response = await axios.get<ProductDto>(
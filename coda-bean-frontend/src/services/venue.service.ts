@@ -39,6 +39,24 @@ export const getUserBookings = async (): Promise<BookingResponseDto[]> => {
   return response.data;
 };
 
+export interface BookingPageDto {
+  items: BookingResponseDto[];
+  nextCursor: string | null;
+}
+
+// Keyset-paginated history, pass nextCursor back with the same period to get the following page
+export const getUserBookingPage = async (
+  period: "upcoming" | "past" = "upcoming",
+  cursor?: string | null,
+  size = 20,
+): Promise<BookingPageDto> => {
+  const response = await axios.get<BookingPageDto>(
+    `${API_URL}/my-bookings/page`,
+    { params: { period, size, cursor: cursor ?? undefined } },
+  );
+  return response.data;
+};
+
 export const cancelBooking = async (bookingId: number): Promise<void> => {
   await axios.post(`${API_URL}/cancel/${bookingId}`);
 };
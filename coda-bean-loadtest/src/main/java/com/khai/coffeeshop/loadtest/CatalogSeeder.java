@@ -0,0 +1,195 @@
+package com.khai.coffeeshop.loadtest;
+
+import com.khai.coffeeshop.dao.UserDao;
+import com.khai.coffeeshop.dao.VenueDao;
+import com.khai.coffeeshop.dto.MenuCategoryDto;
+import com.khai.coffeeshop.dto.MenuItemDto;
+import com.khai.coffeeshop.dto.ProductDto;
+import com.khai.coffeeshop.entity.Customer;
+import com.khai.coffeeshop.entity.Role;
+import com.khai.coffeeshop.entity.User;
+import com.khai.coffeeshop.entity.Venue;
+import com.khai.coffeeshop.init.InitApplication;
+import com.khai.coffeeshop.service.ImageService;
+import com.khai.coffeeshop.service.MenuService;
+import com.khai.coffeeshop.service.ProductService;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/*
+Seeds a catalog well beyond what InitApplication creates, through the application's own services
+so every cache and index is built the way production builds it. Everything is derived from a fixed
+seed, two runs with the same options see the same data.
+ */
+final class CatalogSeeder {
+    static final String PASSWORD = "loadtest";
+
+    private static final String[] CATEGORY_NAMES = {
+            "Espresso", "Filter", "Tea", "Cold Drinks", "Pastries", "Sandwiches", "Desserts", "Seasonal"
+    };
+    private static final String[] ADJECTIVES = {
+            "Iced", "Spiced", "Vanilla", "Caramel", "Hazelnut", "Honey", "Smoked", "Double", "Oat", "Classic",
+            "Maple", "Rose", "Cardamom", "Salted", "Velvet", "Nitro"
+    };
+    private static final String[] NOUNS = {
+            "Latte", "Cappuccino", "Flat White", "Mocha", "Cortado", "Cold Brew", "Chai", "Matcha",
+            "Croissant", "Scone", "Brownie", "Cheesecake", "Bagel", "Panini", "Affogato", "Americano"
+    };
+    private static final String[] TAGS = {
+            "coffee", "dairy-free", "vegan", "gluten-free", "hot", "cold", "sweet", "seasonal", "bestseller"
+    };
+    private static final String[] WORDS = {
+            "single", "origin", "beans", "steamed", "milk", "roasted", "house", "blend", "topped", "with",
+            "cinnamon", "cocoa", "syrup", "fresh", "butter", "served", "warm", "slow", "brewed", "hours"
+    };
+
+    private final ApplicationContext context;
+    private final LoadTestOptions options;
+    private final Random random = new Random(42);
+
+    record Catalog(List<String> usernames, List<Long> venueIds, List<String> imageNames,
+                   List<String> searchTerms, List<String> productCategories) {}
+
+    CatalogSeeder(ApplicationContext context, LoadTestOptions options) {
+        this.context = context;
+        this.options = options;
+    }
+
+    Catalog seed() throws IOException {
+        return new Catalog(seedUsers(), seedVenues(), seedImages(), seedMenu(), seedProducts());
+    }
+
+    // One bcrypt hash shared by every user, hashing each password would take longer than the run
+    private List<String> seedUsers() {
+        Role[] roles = context.getBean(InitApplication.class).createRoles();
+        String hash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < options.users(); i++) {
+            Customer customer = new Customer();
+            customer.setUsername("customer" + i);
+            customer.setPassword(hash);
+            customer.setFirstName("Customer");
+            customer.setLastName(String.valueOf(i));
+            customer.setEmail("customer" + i + "@loadtest.local");
+            customer.setRole(roles[1]);
+            users.add(customer);
+        }
+        return context.getBean(UserDao.class).saveAll(users).stream().map(User::getUsername).toList();
+    }
+
+    private List<Long> seedVenues() {
+        List<Venue> venues = new ArrayList<>();
+        for (int i = 0; i < options.venues(); i++) {
+            venues.add(Venue.builder()
+                    .name("Room " + i)
+                    .location("Floor " + (i % 3))
+                    .capacity(10 + random.nextInt(90))
+                    .description(sentence(10))
+                    .pricePerHour(20.0 + random.nextInt(80))
+                    .isAvailable(true)
+                    .imageUrl("room-" + i + ".jpg")
+                    .build());
+        }
+        return context.getBean(VenueDao.class).saveAll(venues).stream().map(Venue::getId).toList();
+    }
+
+    // Real JPEGs through the upload path, so variants are generated and served like any upload
+    private List<String> seedImages() throws IOException {
+        ImageService imageService = context.getBean(ImageService.class);
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < options.images(); i++) {
+            // One in ten is a large photo, too big for the in-memory image cache
+            boolean large = i % 10 == 9;
+            byte[] jpeg = jpeg(large ? 2400 : 800, large ? 1800 : 600);
+            names.add(imageService.storeImage(new ByteArrayInputStream(jpeg), jpeg.length));
+        }
+        return names;
+    }
+
+    private List<String> seedMenu() {
+        MenuService menuService = context.getBean(MenuService.class);
+        Map<Long, List<MenuItemDto>> items = new LinkedHashMap<>();
+        Set<String> searchTerms = new HashSet<>();
+        for (int c = 0; c < options.categories(); c++) {
+            MenuCategoryDto category = menuService.createCategory(new MenuCategoryDto(null,
+                    pick(CATEGORY_NAMES) + " " + c, sentence(8), "☕", List.of()));
+            List<MenuItemDto> categoryItems = new ArrayList<>();
+            for (int i = 0; i < options.itemsPerCategory(); i++) {
+                String adjective = pick(ADJECTIVES);
+                String noun = pick(NOUNS);
+                Set<String> tags = new HashSet<>();
+                int tagCount = 2 + random.nextInt(2);
+                while (tags.size() < tagCount) {
+                    tags.add(pick(TAGS));
+                }
+                categoryItems.add(new MenuItemDto(null, adjective + " " + noun, sentence(14),
+                        BigDecimal.valueOf(250 + random.nextInt(600), 2), random.nextInt(10) > 0,
+                        null, 2 + random.nextInt(10), tags));
+                searchTerms.add(adjective.toLowerCase());
+                searchTerms.add(noun.toLowerCase());
+            }
+            items.put(category.id(), categoryItems);
+        }
+        menuService.importMenuItems(items);
+        return List.copyOf(searchTerms);
+    }
+
+    private List<String> seedProducts() {
+        List<ProductDto> products = new ArrayList<>();
+        for (int i = 0; i < options.products(); i++) {
+            products.add(new ProductDto(null, pick(CATEGORY_NAMES),
+                    pick(ADJECTIVES) + " " + pick(NOUNS) + " Beans " + i,
+                    sentence(12), 8 + random.nextInt(30), null));
+        }
+        context.getBean(ProductService.class).createProducts(products);
+        return List.of(CATEGORY_NAMES);
+    }
+
+    private byte[] jpeg(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, new Color(random.nextInt(0xFFFFFF)),
+                width, height, new Color(random.nextInt(0xFFFFFF))));
+        graphics.fillRect(0, 0, width, height);
+        // Some texture, flat gradients compress far better than photos do
+        for (int i = 0; i < width * height / 50; i++) {
+            image.setRGB(random.nextInt(width), random.nextInt(height), random.nextInt(0xFFFFFF));
+        }
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+
+    private String sentence(int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(pick(WORDS));
+        }
+        return sentence.toString();
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
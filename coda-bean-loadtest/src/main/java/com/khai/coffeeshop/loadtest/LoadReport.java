@@ -0,0 +1,63 @@
+package com.khai.coffeeshop.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Throughput and latency percentiles per scenario, as a console table and optionally as CSV
+final class LoadReport {
+    private static final String HEADER = "%-10s %9s %10s %9s %8s %7s %7s %7s %8s %9s %9s %9s %9s %9s";
+    private static final String ROW = "%-10s %9.1f %10.1f %9d %8d %7d %7d %7d %8d %9.2f %9.2f %9.2f %9.2f %9.2f";
+
+    private final List<Scenario> scenarios;
+    private final Map<String, ScenarioStats.Snapshot> results;
+    private final Duration duration;
+
+    LoadReport(List<Scenario> scenarios, Map<String, ScenarioStats.Snapshot> results, Duration duration) {
+        this.scenarios = scenarios;
+        this.results = results;
+        this.duration = duration;
+    }
+
+    void print(PrintStream out) {
+        out.println(String.format(Locale.ROOT, HEADER, "scenario", "target/s", "achieved/s", "requests",
+                "2xx/3xx", "4xx", "5xx", "failed", "dropped", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Scenario scenario : scenarios) {
+            ScenarioStats.Snapshot result = results.get(scenario.name());
+            Histogram latencies = result.latencies();
+            out.println(String.format(Locale.ROOT, ROW, scenario.name(), scenario.ratePerSecond(),
+                    result.completed() / (double) duration.toSeconds(), result.completed(),
+                    result.successes(), result.clientErrors(), result.serverErrors(), result.failures(),
+                    result.dropped(), millis(latencies, 50), millis(latencies, 90), millis(latencies, 99),
+                    millis(latencies, 99.9), latencies.getMaxValue() / 1000.0));
+        }
+    }
+
+    void writeCsv(Path path) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("scenario,target_per_s,achieved_per_s,requests,ok,client_errors,server_errors,failed,dropped,"
+                + "p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+        for (Scenario scenario : scenarios) {
+            ScenarioStats.Snapshot result = results.get(scenario.name());
+            Histogram latencies = result.latencies();
+            lines.add(String.format(Locale.ROOT, "%s,%.1f,%.1f,%d,%d,%d,%d,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f",
+                    scenario.name(), scenario.ratePerSecond(), result.completed() / (double) duration.toSeconds(),
+                    result.completed(), result.successes(), result.clientErrors(), result.serverErrors(),
+                    result.failures(), result.dropped(), millis(latencies, 50), millis(latencies, 90),
+                    millis(latencies, 99), millis(latencies, 99.9), latencies.getMaxValue() / 1000.0));
+        }
+        Files.write(path, lines);
+    }
+
+    private static double millis(Histogram latencies, double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
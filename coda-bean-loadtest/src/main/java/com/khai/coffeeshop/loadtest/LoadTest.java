@@ -0,0 +1,189 @@
+package com.khai.coffeeshop.loadtest;
+
+import com.khai.coffeeshop.CodaBeanApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+Boots the application on a random port against an in-memory H2 database in MySQL mode, seeds a large
+catalog, then drives a mixed open-loop workload over HTTP: a warmup phase whose numbers are thrown away,
+then the measured phase. See the module README for the options.
+ */
+public final class LoadTest {
+    private static final Pattern ACCESS_TOKEN = Pattern.compile("\"accessToken\"\\s*:\\s*\"([^\"]+)\"");
+    private static final int BOOKING_USERS = 20;
+    private static final String[] IMAGE_SIZES = {null, "thumb", "card"};
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        // ImageService keeps its uploads under user.dir, keep them out of the working tree
+        Path workDir = Files.createTempDirectory("coda-bean-loadtest");
+        System.setProperty("user.dir", workDir.toString());
+
+        try (ConfigurableApplicationContext context = SpringApplication.run(CodaBeanApplication.class,
+                applicationArguments(options))) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI base = URI.create("http://localhost:" + port);
+
+            long seedStart = System.nanoTime();
+            CatalogSeeder.Catalog catalog = new CatalogSeeder(context, options).seed();
+            System.out.printf("Seeded %d menu items, %d products, %d images, %d venues and %d users in %.1fs%n",
+                    options.categories() * options.itemsPerCategory(), options.products(), catalog.imageNames().size(),
+                    catalog.venueIds().size(), catalog.usernames().size(), (System.nanoTime() - seedStart) / 1e9);
+
+            HttpClient client = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            List<String> tokens = login(client, base,
+                    catalog.usernames().subList(0, Math.min(BOOKING_USERS, catalog.usernames().size())));
+            List<Scenario> scenarios = scenarios(base, catalog, tokens, options.rates());
+
+            System.out.printf("%d cores, max heap %d MB, Java %s, application options %s%n",
+                    Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().maxMemory() / (1024 * 1024),
+                    Runtime.version(), options.applicationArguments());
+
+            OpenLoopDriver driver = new OpenLoopDriver(client, options.maxInFlight());
+            if (!options.warmup().isZero()) {
+                System.out.printf("Warming up for %ds%n", options.warmup().toSeconds());
+                driver.run(scenarios, options.warmup());
+            }
+            System.out.printf("Measuring for %ds%n", options.duration().toSeconds());
+            Map<String, ScenarioStats.Snapshot> results = driver.run(scenarios, options.duration());
+
+            LoadReport report = new LoadReport(scenarios, results, options.duration());
+            report.print(System.out);
+            if (options.report() != null) {
+                report.writeCsv(Path.of(options.report()));
+            }
+        } finally {
+            FileSystemUtils.deleteRecursively(workDir);
+        }
+    }
+
+    private static String[] applicationArguments(LoadTestOptions options) {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--app.security.token.secret=" + Base64.getEncoder().encodeToString(secret),
+                "--app.security.token.access-ttl-seconds=86400",
+                "--logging.level.root=WARN"
+        ));
+        // Later arguments win, so anything passed on the command line overrides the defaults above
+        arguments.addAll(options.applicationArguments());
+        return arguments.toArray(String[]::new);
+    }
+
+    private static List<String> login(HttpClient client, URI base, List<String> usernames)
+            throws IOException, InterruptedException {
+        List<String> tokens = new ArrayList<>();
+        for (String username : usernames) {
+            HttpResponse<String> response = client.send(loginRequest(base, username), HttpResponse.BodyHandlers.ofString());
+            Matcher token = ACCESS_TOKEN.matcher(response.body());
+            if (response.statusCode() != 200 || !token.find()) {
+                throw new IllegalStateException("Login of " + username + " failed with " + response.statusCode());
+            }
+            tokens.add(token.group(1));
+        }
+        return tokens;
+    }
+
+    private static List<Scenario> scenarios(URI base, CatalogSeeder.Catalog catalog, List<String> tokens,
+                                            Map<String, Double> rates) {
+        List<Scenario> scenarios = new ArrayList<>();
+        rates.forEach((name, rate) -> {
+            if (rate <= 0) {
+                return;
+            }
+            scenarios.add(switch (name) {
+                case "menu" -> new Scenario(name, rate, random -> {
+                    HttpRequest.Builder request = HttpRequest.newBuilder(base.resolve("/api/menu"));
+                    if (random.nextBoolean()) {
+                        request.header("Accept-Encoding", "gzip");
+                    }
+                    return request.build();
+                });
+                case "products" -> new Scenario(name, rate, random -> get(base,
+                        "/api/products/page?size=24&category=" + encode(pick(random, catalog.productCategories()))));
+                case "search" -> new Scenario(name, rate, random -> {
+                    String term = pick(random, catalog.searchTerms());
+                    return random.nextBoolean()
+                            ? get(base, "/api/menu/search?query=" + encode(term))
+                            : get(base, "/api/search/suggest?query=" + encode(term.substring(0, Math.min(3, term.length()))));
+                });
+                case "images" -> new Scenario(name, rate, random -> {
+                    String size = IMAGE_SIZES[random.nextInt(IMAGE_SIZES.length)];
+                    return get(base, "/api/images/product-image/" + pick(random, catalog.imageNames())
+                            + (size == null ? "" : "?size=" + size));
+                });
+                case "bookings" -> new Scenario(name, rate, random -> bookingRequest(base, random, catalog, tokens));
+                case "logins" -> new Scenario(name, rate, random -> loginRequest(base, pick(random, catalog.usernames())));
+                default -> throw new IllegalArgumentException("Unknown scenario " + name);
+            });
+        });
+        return scenarios;
+    }
+
+    // An hour or two in the next 30 days, so some requests collide with earlier bookings
+    private static HttpRequest bookingRequest(URI base, Random random, CatalogSeeder.Catalog catalog, List<String> tokens) {
+        LocalDateTime start = LocalDate.now().plusDays(1 + random.nextInt(30)).atTime(8 + random.nextInt(12), 0);
+        LocalDateTime end = start.plusHours(1 + random.nextInt(2));
+        String body = "{\"venueId\":%d,\"startTime\":\"%s\",\"endTime\":\"%s\",\"specialRequests\":null}"
+                .formatted(pick(random, catalog.venueIds()), start, end);
+        return HttpRequest.newBuilder(base.resolve("/api/venues/book"))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + pick(random, tokens))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static HttpRequest loginRequest(URI base, String username) {
+        String body = "{\"username\":\"%s\",\"password\":\"%s\"}".formatted(username, CatalogSeeder.PASSWORD);
+        return HttpRequest.newBuilder(base.resolve("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static HttpRequest get(URI base, String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static <T> T pick(Random random, List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
@@ -0,0 +1,85 @@
+package com.khai.coffeeshop.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+--key=value arguments. Keys starting with spring., server., app. or logging. are handed to the application
+(e.g. --spring.threads.virtual.enabled=true), everything else configures the run.
+ */
+record LoadTestOptions(
+        Duration warmup,
+        Duration duration,
+        Map<String, Double> rates,
+        int categories,
+        int itemsPerCategory,
+        int products,
+        int images,
+        int venues,
+        int users,
+        int maxInFlight,
+        String report,
+        List<String> applicationArguments
+) {
+    private static final List<String> APPLICATION_PREFIXES = List.of("spring.", "server.", "app.", "logging.");
+
+    // Requests per second of each scenario, a rate of 0 leaves the scenario out
+    static final Map<String, Double> DEFAULT_RATES = defaultRates();
+
+    private static Map<String, Double> defaultRates() {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        rates.put("menu", 40.0);
+        rates.put("products", 15.0);
+        rates.put("search", 25.0);
+        rates.put("images", 25.0);
+        rates.put("bookings", 2.0);
+        rates.put("logins", 1.0);
+        return rates;
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        List<String> applicationArguments = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got " + arg);
+            }
+            String key = arg.substring(2, arg.indexOf('='));
+            if (APPLICATION_PREFIXES.stream().anyMatch(key::startsWith)) {
+                applicationArguments.add(arg);
+            } else {
+                values.put(key, arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+
+        Map<String, Double> rates = new LinkedHashMap<>();
+        DEFAULT_RATES.forEach((scenario, rate) -> {
+            String value = values.remove("rate." + scenario);
+            rates.put(scenario, value == null ? rate : Double.parseDouble(value));
+        });
+
+        LoadTestOptions options = new LoadTestOptions(
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "15"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "60"))),
+                rates,
+                Integer.parseInt(values.getOrDefault("categories", "40")),
+                Integer.parseInt(values.getOrDefault("items-per-category", "50")),
+                Integer.parseInt(values.getOrDefault("products", "5000")),
+                Integer.parseInt(values.getOrDefault("images", "40")),
+                Integer.parseInt(values.getOrDefault("venues", "20")),
+                Integer.parseInt(values.getOrDefault("users", "200")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "2000")),
+                values.get("report"),
+                List.copyOf(applicationArguments)
+        );
+        values.keySet().removeAll(List.of("warmup", "duration", "categories", "items-per-category", "products",
+                "images", "venues", "users", "max-in-flight", "report"));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options " + values.keySet());
+        }
+        return options;
+    }
+}
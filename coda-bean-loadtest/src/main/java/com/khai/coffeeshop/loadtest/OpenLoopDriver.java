@@ -0,0 +1,91 @@
+package com.khai.coffeeshop.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+Open-loop load: every scenario issues its requests on a fixed schedule (rate per second) whether
+or not earlier ones have answered, the way independent users arrive. Latency is taken from the
+scheduled time, so a stalled server shows up as queueing delay instead of silently lowering the rate.
+Past maxInFlight outstanding requests new ones are counted as dropped rather than queued in the client.
+ */
+final class OpenLoopDriver {
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final int maxInFlight;
+
+    OpenLoopDriver(HttpClient client, int maxInFlight) {
+        this.client = client;
+        this.maxInFlight = maxInFlight;
+    }
+
+    Map<String, ScenarioStats.Snapshot> run(List<Scenario> scenarios, Duration duration) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        Map<String, ScenarioStats> stats = new LinkedHashMap<>();
+        List<Thread> schedulers = new ArrayList<>();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        for (int s = 0; s < scenarios.size(); s++) {
+            Scenario scenario = scenarios.get(s);
+            ScenarioStats scenarioStats = new ScenarioStats();
+            stats.put(scenario.name(), scenarioStats);
+            Random random = new Random(31L * s + scenario.name().hashCode());
+            schedulers.add(Thread.ofPlatform().name("load-" + scenario.name()).start(() ->
+                    schedule(scenario, scenarioStats, random, inFlight, start, end)));
+        }
+        for (Thread scheduler : schedulers) {
+            scheduler.join();
+        }
+        if (!inFlight.tryAcquire(maxInFlight, DRAIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            System.err.println("Some requests were still outstanding after " + DRAIN_TIMEOUT.toSeconds() + "s");
+        } else {
+            inFlight.release(maxInFlight);
+        }
+
+        Map<String, ScenarioStats.Snapshot> snapshots = new LinkedHashMap<>();
+        stats.forEach((name, scenarioStats) -> snapshots.put(name, scenarioStats.snapshot()));
+        return snapshots;
+    }
+
+    private void schedule(Scenario scenario, ScenarioStats stats, Random random, Semaphore inFlight,
+                          long start, long end) {
+        double intervalNanos = 1e9 / scenario.ratePerSecond();
+        for (long i = 0; ; i++) {
+            long due = start + (long) (i * intervalNanos);
+            if (due >= end) {
+                return;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!inFlight.tryAcquire()) {
+                stats.recordDropped();
+                continue;
+            }
+            HttpRequest request = scenario.nextRequest().apply(random);
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long latency = System.nanoTime() - due;
+                        if (error != null) {
+                            stats.recordFailure(latency);
+                        } else {
+                            stats.recordResponse(response.statusCode(), latency);
+                        }
+                        inFlight.release();
+                    });
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.khai.coffeeshop.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.Random;
+import java.util.function.Function;
+
+// A named request generator driven at a fixed arrival rate, requests are built on the scheduling thread
+record Scenario(String name, double ratePerSecond, Function<Random, HttpRequest> nextRequest) {}
@@ -0,0 +1,48 @@
+package com.khai.coffeeshop.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Latencies in microseconds, measured from when the request was due, not from when it was sent
+final class ScenarioStats {
+    private final Recorder latencies = new Recorder(3);
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    void recordResponse(int status, long latencyNanos) {
+        latencies.recordValue(Math.max(1, latencyNanos / 1000));
+        if (status < 400) {
+            successes.increment();
+        } else if (status < 500) {
+            clientErrors.increment();
+        } else {
+            serverErrors.increment();
+        }
+    }
+
+    void recordFailure(long latencyNanos) {
+        latencies.recordValue(Math.max(1, latencyNanos / 1000));
+        failures.increment();
+    }
+
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    Snapshot snapshot() {
+        return new Snapshot(latencies.getIntervalHistogram(), successes.sum(), clientErrors.sum(),
+                serverErrors.sum(), failures.sum(), dropped.sum());
+    }
+
+    record Snapshot(Histogram latencies, long successes, long clientErrors, long serverErrors,
+                    long failures, long dropped) {
+        long completed() {
+            return successes + clientErrors + serverErrors + failures;
+        }
+    }
+}